@@ -12,18 +12,22 @@ import software.amazon.awscdk.services.cloudwatch.GraphWidgetView;
 import software.amazon.awscdk.services.cloudwatch.IMetric;
 import software.amazon.awscdk.services.cloudwatch.IWidget;
 import software.amazon.awscdk.services.cloudwatch.MathExpression;
+import software.amazon.awscdk.services.cloudwatch.Metric;
 import software.amazon.awscdk.services.cloudwatch.MetricOptions;
 import software.amazon.awscdk.services.lambda.Function;
 import software.constructs.Construct;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public class DashboardStack extends Stack {
 
+    // Must match the namespace and dimension the functions write their embedded metrics with
+    private static final String METRICS_NAMESPACE = "Products";
+    private static final String FUNCTION_NAME_DIMENSION = "FunctionName";
+
     public DashboardStack(final Construct parent, final String id, List<Function> functions) {
         this(parent, id, null, functions);
     }
@@ -91,10 +95,69 @@ public class DashboardStack extends Stack {
                 .view(GraphWidgetView.TIME_SERIES)
                 .build();
 
+        IWidget handlerTimeGraph = GraphWidget.Builder.create()
+                .title("P50 Handler Time")
+                .left(embeddedMetrics(functions, "HandlerTime", "p50"))
+                .view(GraphWidgetView.TIME_SERIES)
+                .build();
+
+        IWidget storeTimeGraph = GraphWidget.Builder.create()
+                .title("P50 Store Time")
+                .left(embeddedMetrics(functions, "StoreTime", "p50"))
+                .view(GraphWidgetView.TIME_SERIES)
+                .build();
+
+        List<IMetric> serializationTimeMetrics = new ArrayList<>(embeddedMetrics(functions, "SerializationTime", "p50"));
+        serializationTimeMetrics.addAll(embeddedMetrics(functions, "DeserializationTime", "p50"));
+        IWidget serializationTimeGraph = GraphWidget.Builder.create()
+                .title("P50 (De)serialization Time")
+                .left(serializationTimeMetrics)
+                .view(GraphWidgetView.TIME_SERIES)
+                .build();
+
+        List<IMetric> cacheHitRates = new ArrayList<>();
+        for (int i = 0; i < functions.size(); i++) {
+            function = functions.get(i);
+            cacheHitRates.add(MathExpression.Builder.create()
+                    .expression(String.format("(hits%s / (hits%s + misses%s)) * 100", i, i, i))
+                    .usingMetrics(Map.of("hits" + i, embeddedMetric(function, "CacheHits", "Sum"),
+                            "misses" + i, embeddedMetric(function, "CacheMisses", "Sum")))
+                    .label(function.getFunctionName() + " Cache Hit Rate")
+                    .build());
+        }
+
+        IWidget cacheHitRateGraph = GraphWidget.Builder.create()
+                .title("Cache Hit Rates")
+                .left(cacheHitRates)
+                .view(GraphWidgetView.TIME_SERIES)
+                .build();
+
         List<IWidget> widgets = List.of(p90DurationGraph, p50DurationGraph, errorRateGraph, concurrentExecutionsGraph);
+        List<IWidget> breakdownWidgets = List.of(handlerTimeGraph, storeTimeGraph, serializationTimeGraph,
+                cacheHitRateGraph);
         Dashboard dashboard = Dashboard.Builder.create(this, "ProductsDashboard")
                 .dashboardName("ProductsDashboard")
-                .widgets(Collections.singletonList(widgets))
+                .widgets(List.of(widgets, breakdownWidgets))
+                .build();
+    }
+
+    /**
+     * @return the metric each function writes in CloudWatch Embedded Metric Format, one per function
+     */
+    private static List<IMetric> embeddedMetrics(List<Function> functions, String metricName, String statistic) {
+        return functions.stream()
+                .map(f -> embeddedMetric(f, metricName, statistic))
+                .collect(Collectors.toList());
+    }
+
+    private static IMetric embeddedMetric(Function function, String metricName, String statistic) {
+        return Metric.Builder.create()
+                .namespace(METRICS_NAMESPACE)
+                .metricName(metricName)
+                .dimensionsMap(Map.of(FUNCTION_NAME_DIMENSION, function.getFunctionName()))
+                .label(function.getFunctionName() + " " + metricName)
+                .period(Duration.minutes(1))
+                .statistic(statistic)
                 .build();
     }
 }
@@ -12,13 +12,20 @@ import software.amazon.awscdk.services.apigatewayv2.HttpMethod;
 import software.amazon.awscdk.services.dynamodb.Attribute;
 import software.amazon.awscdk.services.dynamodb.AttributeType;
 import software.amazon.awscdk.services.dynamodb.BillingMode;
+import software.amazon.awscdk.services.dynamodb.GlobalSecondaryIndexProps;
+import software.amazon.awscdk.services.dynamodb.ProjectionType;
 import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.lambda.CfnFunction;
 import software.amazon.awscdk.services.lambda.Code;
 import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.lambda.IFunction;
 import software.amazon.awscdk.services.lambda.Runtime;
 import software.amazon.awscdk.services.lambda.Tracing;
+import software.amazon.awscdk.services.lambda.eventsources.SqsEventSource;
 import software.amazon.awscdk.services.logs.RetentionDays;
 import software.amazon.awscdk.services.s3.assets.AssetOptions;
+import software.amazon.awscdk.services.sqs.DeadLetterQueue;
+import software.amazon.awscdk.services.sqs.Queue;
 import software.constructs.Construct;
 
 import java.util.*;
@@ -30,6 +37,10 @@ public class InfrastructureStack extends Stack {
 
     List<Function> functions = new ArrayList<>();
 
+    // Deploy with "cdk deploy -c runtime=jvm" to run the shaded jar on the Java runtime with SnapStart instead of
+    // the native image
+    private final boolean jvm;
+
     public InfrastructureStack(final Construct parent, final String id) {
         this(parent, id, null);
     }
@@ -37,6 +48,8 @@ public class InfrastructureStack extends Stack {
     public InfrastructureStack(final Construct parent, final String id, final StackProps props) {
         super(parent, id, props);
 
+        jvm = "jvm".equals(String.valueOf(this.getNode().tryGetContext("runtime")));
+
         Table productsTable = Table.Builder.create(this, "Products")
                 .tableName("Products")
                 .partitionKey(Attribute.builder()
@@ -46,11 +59,39 @@ public class InfrastructureStack extends Stack {
                 .billingMode(BillingMode.PAY_PER_REQUEST)
                 .build();
 
+        // Search indexes, partitioned by a shard number derived from the product ID (see ProductMapper)
+        productsTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                .indexName("PriceIndex")
+                .partitionKey(Attribute.builder()
+                        .type(AttributeType.STRING)
+                        .name("shard")
+                        .build())
+                .sortKey(Attribute.builder()
+                        .type(AttributeType.NUMBER)
+                        .name("price")
+                        .build())
+                .projectionType(ProjectionType.ALL)
+                .build());
+        productsTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                .indexName("NameIndex")
+                .partitionKey(Attribute.builder()
+                        .type(AttributeType.STRING)
+                        .name("shard")
+                        .build())
+                .sortKey(Attribute.builder()
+                        .type(AttributeType.STRING)
+                        .name("nameKey")
+                        .build())
+                .projectionType(ProjectionType.ALL)
+                .build());
+
+        // The JVM variant deploys the shaded jar, the native variant the zipped binary and its bootstrap script
+        String packaging = jvm
+                ? "mvn clean install && cp /asset-input/products/target/product.jar /asset-output/"
+                : "mvn clean install -P native-image && cp /asset-input/products/target/function.zip /asset-output/";
         List<String> functionOnePackagingInstructions = Arrays.asList(
                 "-c",
-                "cd products " +
-                        "&& mvn clean install -P native-image "
-                        + "&& cp /asset-input/products/target/function.zip /asset-output/"
+                "cd products && " + packaging
         );
 
         BundlingOptions builderOptions = BundlingOptions.builder()
@@ -69,22 +110,103 @@ public class InfrastructureStack extends Stack {
 
         Map<String, String> environmentVariables = new HashMap<>();
         environmentVariables.put("PRODUCT_TABLE_NAME", productsTable.getTableName());
+        if (jvm) {
+            // The options the Java runtime is commonly tuned with for short-lived functions
+            environmentVariables.put("JAVA_TOOL_OPTIONS", "-XX:+TieredCompilation -XX:TieredStopAtLevel=1");
+        }
+
+        Map<String, String> cachingEnvironmentVariables = new HashMap<>(environmentVariables);
+        cachingEnvironmentVariables.put("PRODUCT_CACHE_MAX_SIZE", "1000");
+        cachingEnvironmentVariables.put("PRODUCT_CACHE_TTL_SECONDS", "30");
+        cachingEnvironmentVariables.put("PRODUCT_CACHE_NEGATIVE_TTL_SECONDS", "5");
+
+        HttpApi httpApi = HttpApi.Builder.create(this, "ProductsApi")
+                .apiName("ProductsApi")
+                .build();
+
+        // Deploy with "cdk deploy -c singleFunction=true" to serve every route from one function
+        if (Boolean.parseBoolean(String.valueOf(this.getNode().tryGetContext("singleFunction")))) {
+            createRouterFunction(productsTable, httpApi, builderOptions, cachingEnvironmentVariables);
+        } else {
+            createFunctionPerRoute(productsTable, httpApi, builderOptions, environmentVariables, cachingEnvironmentVariables);
+        }
+
+        Queue ingestQueue = createIngestFunction(productsTable, builderOptions, environmentVariables);
+
+        CfnOutput apiUrl = CfnOutput.Builder.create(this, "ApiUrl")
+                .exportName("ApiUrl")
+                .value(httpApi.getApiEndpoint())
+                .build();
+
+        CfnOutput ingestQueueUrl = CfnOutput.Builder.create(this, "IngestQueueUrl")
+                .exportName("IngestQueueUrl")
+                .value(ingestQueue.getQueueUrl())
+                .build();
+    }
+
+    /**
+     * Products sent to the ingest queue are written in batches by the SqsPutProductRequestHandler, which keeps only the
+     * latest write of each product in a batch. The batching window lets repeated writes accumulate before a batch is
+     * delivered, and failed messages are retried on their own until they end up in the dead-letter queue.
+     */
+    private Queue createIngestFunction(Table productsTable, BundlingOptions builderOptions,
+                                       Map<String, String> environmentVariables) {
+        Queue deadLetterQueue = Queue.Builder.create(this, "ProductIngestDeadLetterQueue")
+                .retentionPeriod(Duration.days(14))
+                .build();
+
+        Queue ingestQueue = Queue.Builder.create(this, "ProductIngestQueue")
+                // At least six times the function timeout, as recommended for Lambda event sources
+                .visibilityTimeout(Duration.seconds(180))
+                .deadLetterQueue(DeadLetterQueue.builder()
+                        .queue(deadLetterQueue)
+                        .maxReceiveCount(5)
+                        .build())
+                .build();
+
+        Function ingestProductFunction = Function.Builder.create(this, "IngestProductFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.SqsPutProductRequestHandler")
+                .memorySize(256)
+                .timeout(Duration.seconds(30))
+                .environment(environmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
+                .build();
 
+        live(ingestProductFunction).addEventSource(SqsEventSource.Builder.create(ingestQueue)
+                .batchSize(100)
+                .maxBatchingWindow(Duration.seconds(5))
+                .reportBatchItemFailures(true)
+                .build());
+
+        productsTable.grantWriteData(ingestProductFunction);
+        functions.add(ingestProductFunction);
+        return ingestQueue;
+    }
+
+    private void createFunctionPerRoute(Table productsTable, HttpApi httpApi, BundlingOptions builderOptions,
+                                        Map<String, String> environmentVariables,
+                                        Map<String, String> cachingEnvironmentVariables) {
         Function getProductFunction = Function.Builder.create(this, "GetProductFunction")
-                .runtime(Runtime.PROVIDED_AL2023)
+                .runtime(runtime())
                 .code(Code.fromAsset("../software/", AssetOptions.builder()
                         .bundling(builderOptions)
                         .build()))
                 .handler("software.amazonaws.example.product.entrypoints.ApiGatewayGetProductRequestHandler")
                 .memorySize(256)
-                .environment(environmentVariables)
+                .environment(cachingEnvironmentVariables)
                 .logRetention(RetentionDays.ONE_WEEK)
                 .tracing(Tracing.ACTIVE)
 //                .architecture(Architecture.ARM_64)
                 .build();
 
         Function getAllProductFunction = Function.Builder.create(this, "GetAllProductFunction")
-                .runtime(Runtime.PROVIDED_AL2023)
+                .runtime(runtime())
                 .code(Code.fromAsset("../software/", AssetOptions.builder()
                         .bundling(builderOptions)
                         .build()))
@@ -96,8 +218,21 @@ public class InfrastructureStack extends Stack {
 //                .architecture(Architecture.ARM_64)
                 .build();
 
+        Function searchProductsFunction = Function.Builder.create(this, "SearchProductsFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.ApiGatewaySearchProductsRequestHandler")
+                .memorySize(256)
+                .environment(environmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
+                .build();
+
         Function putProductFunction = Function.Builder.create(this, "PutProductFunction")
-                .runtime(Runtime.PROVIDED_AL2023)
+                .runtime(runtime())
                 .code(Code.fromAsset("../software/", AssetOptions.builder()
                         .bundling(builderOptions)
                         .build()))
@@ -110,7 +245,7 @@ public class InfrastructureStack extends Stack {
                 .build();
 
         Function deleteProductFunction = Function.Builder.create(this, "DeleteProductFunction")
-                .runtime(Runtime.PROVIDED_AL2023)
+                .runtime(runtime())
                 .code(Code.fromAsset("../software/", AssetOptions.builder()
                         .bundling(builderOptions)
                         .build()))
@@ -122,48 +257,187 @@ public class InfrastructureStack extends Stack {
 //                .architecture(Architecture.ARM_64)
                 .build();
 
+        Function batchGetProductFunction = Function.Builder.create(this, "BatchGetProductFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.ApiGatewayBatchGetProductRequestHandler")
+                .memorySize(256)
+                .environment(environmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
+                .build();
+
+        Function batchPutProductFunction = Function.Builder.create(this, "BatchPutProductFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.ApiGatewayBatchPutProductRequestHandler")
+                .memorySize(256)
+                .environment(environmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
+                .build();
+
+        Function batchDeleteProductFunction = Function.Builder.create(this, "BatchDeleteProductFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.ApiGatewayBatchDeleteProductRequestHandler")
+                .memorySize(256)
+                .environment(environmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
+                .build();
+
         productsTable.grantReadData(getProductFunction);
         productsTable.grantReadData(getAllProductFunction);
+        productsTable.grantReadData(searchProductsFunction);
         productsTable.grantWriteData(putProductFunction);
         productsTable.grantWriteData(deleteProductFunction);
-
-        HttpApi httpApi = HttpApi.Builder.create(this, "ProductsApi")
-                .apiName("ProductsApi")
-                .build();
+        productsTable.grantReadData(batchGetProductFunction);
+        productsTable.grantWriteData(batchPutProductFunction);
+        productsTable.grantWriteData(batchDeleteProductFunction);
 
         httpApi.addRoutes(AddRoutesOptions.builder()
                 .path("/{id}")
                 .methods(singletonList(HttpMethod.GET))
-                .integration(new HttpLambdaIntegration("HttpApiGatewayGetProductFunction", getProductFunction))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayGetProductFunction", live(getProductFunction)))
                 .build());
 
         httpApi.addRoutes(AddRoutesOptions.builder()
                 .path("/")
                 .methods(singletonList(HttpMethod.GET))
-                .integration(new HttpLambdaIntegration("HttpApiGatewayGetAllProductsFunction", getAllProductFunction))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayGetAllProductsFunction", live(getAllProductFunction)))
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/search")
+                .methods(singletonList(HttpMethod.GET))
+                .integration(new HttpLambdaIntegration("HttpApiGatewaySearchProductsFunction", live(searchProductsFunction)))
                 .build());
 
         httpApi.addRoutes(AddRoutesOptions.builder()
                 .path("/{id}")
                 .methods(singletonList(HttpMethod.PUT))
-                .integration(new HttpLambdaIntegration("HttpApiGatewayPutProductFunction", putProductFunction))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayPutProductFunction", live(putProductFunction)))
                 .build());
 
         httpApi.addRoutes(AddRoutesOptions.builder()
                 .path("/{id}")
                 .methods(singletonList(HttpMethod.DELETE))
-                .integration(new HttpLambdaIntegration("HttpApiGatewayDeleteProductFunction", deleteProductFunction))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayDeleteProductFunction", live(deleteProductFunction)))
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/get")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayBatchGetProductFunction", live(batchGetProductFunction)))
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/put")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayBatchPutProductFunction", live(batchPutProductFunction)))
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/delete")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(new HttpLambdaIntegration("HttpApiGatewayBatchDeleteProductFunction", live(batchDeleteProductFunction)))
                 .build());
 
         functions.add(getAllProductFunction);
         functions.add(getProductFunction);
+        functions.add(searchProductsFunction);
         functions.add(putProductFunction);
         functions.add(deleteProductFunction);
+        functions.add(batchGetProductFunction);
+        functions.add(batchPutProductFunction);
+        functions.add(batchDeleteProductFunction);
+    }
 
-        CfnOutput apiUrl = CfnOutput.Builder.create(this, "ApiUrl")
-                .exportName("ApiUrl")
-                .value(httpApi.getApiEndpoint())
+    private void createRouterFunction(Table productsTable, HttpApi httpApi, BundlingOptions builderOptions,
+                                      Map<String, String> cachingEnvironmentVariables) {
+        Function productRouterFunction = Function.Builder.create(this, "ProductRouterFunction")
+                .runtime(runtime())
+                .code(Code.fromAsset("../software/", AssetOptions.builder()
+                        .bundling(builderOptions)
+                        .build()))
+                .handler("software.amazonaws.example.product.entrypoints.ApiGatewayProductRouterHandler")
+                .memorySize(256)
+                .environment(cachingEnvironmentVariables)
+                .logRetention(RetentionDays.ONE_WEEK)
+                .tracing(Tracing.ACTIVE)
+//                .architecture(Architecture.ARM_64)
                 .build();
+
+        productsTable.grantReadWriteData(productRouterFunction);
+
+        HttpLambdaIntegration integration = new HttpLambdaIntegration("HttpApiGatewayProductRouterFunction", live(productRouterFunction));
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/")
+                .methods(singletonList(HttpMethod.GET))
+                .integration(integration)
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/search")
+                .methods(singletonList(HttpMethod.GET))
+                .integration(integration)
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/{id}")
+                .methods(Arrays.asList(HttpMethod.GET, HttpMethod.PUT, HttpMethod.DELETE))
+                .integration(integration)
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/get")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(integration)
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/put")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(integration)
+                .build());
+
+        httpApi.addRoutes(AddRoutesOptions.builder()
+                .path("/batch/delete")
+                .methods(singletonList(HttpMethod.POST))
+                .integration(integration)
+                .build());
+
+        functions.add(productRouterFunction);
+    }
+
+    private Runtime runtime() {
+        return jvm ? Runtime.JAVA_21 : Runtime.PROVIDED_AL2023;
+    }
+
+    /**
+     * @return what the API routes and event sources invoke: the function itself for the native image, or for the JVM
+     * an alias of a published version with SnapStart turned on. SnapStart snapshots each published version after its
+     * init phase, checkpoint hooks included, and starts new execution environments from that snapshot.
+     */
+    private IFunction live(Function function) {
+        if (!jvm) {
+            return function;
+        }
+        ((CfnFunction) function.getNode().getDefaultChild()).setSnapStart(CfnFunction.SnapStartProperty.builder()
+                .applyOn("PublishedVersions")
+                .build());
+        return function.addAlias("live");
     }
 
     public List<Function> getFunctions() {
@@ -0,0 +1,69 @@
+#!/bin/bash
+# Compares Lambda init duration (cold starts) of the product functions between two time windows,
+# e.g. before and after a deployment. Besides the init duration it reports the duration of the first
+# invocation and of both together, because work moved into init (such as opening the DynamoDB
+# connection) raises the former and lowers the latter.
+#
+# Usage: ./cold-start-report.sh <before-start> <before-end> <after-start> <after-end>
+# Times are anything `date -d` understands, e.g. "2024-05-01T10:00:00Z" or "2 hours ago".
+
+set -euo pipefail
+
+STACK_NAME=${STACK_NAME:-GraalVMPerfTestStack}
+
+if [ $# -ne 4 ]; then
+  echo "Usage: $0 <before-start> <before-end> <after-start> <after-end>" >&2
+  exit 1
+fi
+
+QUERY='filter @type = "REPORT" and ispresent(@initDuration)
+| fields @initDuration + @duration as coldStartDuration
+| stats count(*) as coldStarts,
+        pct(@initDuration, 50) as p50,
+        pct(@initDuration, 90) as p90,
+        pct(@initDuration, 99) as p99,
+        max(@initDuration) as maxInit,
+        pct(@duration, 50) as firstP50,
+        pct(coldStartDuration, 50) as totalP50,
+        pct(coldStartDuration, 99) as totalP99
+  by @log'
+
+LOG_GROUPS=$(aws cloudformation describe-stack-resources --stack-name "$STACK_NAME" \
+  --query 'StackResources[?ResourceType==`AWS::Lambda::Function`].PhysicalResourceId' \
+  --output text | tr '\t' '\n' | sed 's|^|/aws/lambda/|')
+
+run_query() {
+  local start end query_id status
+  start=$(date -d "$1" +%s)
+  end=$(date -d "$2" +%s)
+  # shellcheck disable=SC2086
+  query_id=$(aws logs start-query --start-time "$start" --end-time "$end" \
+    --log-group-names $LOG_GROUPS --query-string "$QUERY" --output text --query queryId)
+  status=Running
+  while [ "$status" = "Running" ] || [ "$status" = "Scheduled" ]; do
+    sleep 2
+    status=$(aws logs get-query-results --query-id "$query_id" --query status --output text)
+  done
+  aws logs get-query-results --query-id "$query_id" \
+    --query 'results[].[[?field==`@log`].value|[0], [?field==`coldStarts`].value|[0], [?field==`p50`].value|[0], [?field==`p90`].value|[0], [?field==`p99`].value|[0], [?field==`maxInit`].value|[0], [?field==`firstP50`].value|[0], [?field==`totalP50`].value|[0], [?field==`totalP99`].value|[0]]' \
+    --output text | sed 's|^[0-9]*:/aws/lambda/||' | sort
+}
+
+BEFORE=$(mktemp)
+AFTER=$(mktemp)
+trap 'rm -f "$BEFORE" "$AFTER"' EXIT
+
+run_query "$1" "$2" > "$BEFORE"
+run_query "$3" "$4" > "$AFTER"
+
+printf '%-60s %8s %10s %10s %10s %10s %10s %10s %10s %10s\n' \
+  FUNCTION WINDOW COLD P50_MS P90_MS P99_MS MAX_MS FIRST_P50 TOTAL_P50 TOTAL_P99
+join -t $'\t' "$BEFORE" "$AFTER" | while IFS=$'\t' read -r fn bc b50 b90 b99 bmax bf50 bt50 bt99 ac a50 a90 a99 amax af50 at50 at99; do
+  printf '%-60s %8s %10s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f\n' \
+    "$fn" before "$bc" "$b50" "$b90" "$b99" "$bmax" "$bf50" "$bt50" "$bt99"
+  printf '%-60s %8s %10s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f\n' \
+    "" after "$ac" "$a50" "$a90" "$a99" "$amax" "$af50" "$at50" "$at99"
+  printf '%-60s %8s %10s %+10.1f %+10.1f %+10.1f %+10.1f %+10.1f %+10.1f %+10.1f\n' "" delta "" \
+    "$(echo "$a50 - $b50" | bc)" "$(echo "$a90 - $b90" | bc)" "$(echo "$a99 - $b99" | bc)" "$(echo "$amax - $bmax" | bc)" \
+    "$(echo "$af50 - $bf50" | bc)" "$(echo "$at50 - $bt50" | bc)" "$(echo "$at99 - $bt99" | bc)"
+done
@@ -0,0 +1,75 @@
+#!/bin/bash
+# Runs the load test against the local API server instead of a deployed API, for the JVM build, the native image or
+# both, and prints throughput and latency side by side.
+#
+# Usage: ./run-local-load-test.sh [jvm|native|both]
+#
+# Build the server first:
+#   ./mvnw -pl software/local -am package                      # JVM: software/local/target/local-api-server.jar
+#   ./mvnw -pl software/local -am package -Pnative-image       # native: software/local/target/local-api-server
+#
+# The in-memory store is used unless PRODUCT_STORE=dynamodb is set; PRODUCT_STORE_* variables inject latency.
+
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+MODE=${1:-both}
+RESULTS=()
+PORT=${PORT:-3000}
+TARGET=../software/local/target
+
+mkdir -p results
+
+wait_for_port() {
+  for _ in $(seq 1 100); do
+    if (echo > "/dev/tcp/localhost/$PORT") 2>/dev/null; then
+      return 0
+    fi
+    sleep 0.1
+  done
+  echo "Server did not start listening on port $PORT" >&2
+  return 1
+}
+
+run() {
+  local name=$1
+  shift
+  PORT=$PORT "$@" > "results/local-$name-server.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  wait_for_port
+  artillery run load-test.yml --target "http://localhost:$PORT" --output "results/local-$name.json"
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+  RESULTS+=("results/local-$name.json")
+}
+
+case "$MODE" in
+  jvm) run jvm java -jar "$TARGET/local-api-server.jar" ;;
+  native) run native "$TARGET/local-api-server" ;;
+  both)
+    run jvm java -jar "$TARGET/local-api-server.jar"
+    run native "$TARGET/local-api-server"
+    ;;
+  *)
+    echo "Usage: $0 [jvm|native|both]" >&2
+    exit 1
+    ;;
+esac
+
+printf '%-8s %10s %10s %10s %10s %10s %8s\n' BUILD REQUESTS RPS P50_MS P95_MS P99_MS ERRORS
+for result in "${RESULTS[@]}"; do
+  jq -r --arg name "$(basename "$result" .json | sed 's/^local-//')" '
+    .aggregate as $a
+    | [$name,
+       ($a.counters["http.requests"] // 0),
+       ($a.rates["http.request_rate"] // 0),
+       ($a.summaries["http.response_time"].p50 // 0),
+       ($a.summaries["http.response_time"].p95 // 0),
+       ($a.summaries["http.response_time"].p99 // 0),
+       ([$a.counters | to_entries[] | select(.key | test("^(errors\\.|http\\.codes\\.5)")) | .value] | add // 0)]
+    | @tsv' "$result" \
+  | awk -F'\t' '{ printf "%-8s %10d %10.1f %10.1f %10.1f %10.1f %8d\n", $1, $2, $3, $4, $5, $6, $7 }'
+done
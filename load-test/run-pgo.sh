@@ -0,0 +1,28 @@
+#!/bin/bash
+# Builds the native product binary with profile-guided optimization and compares it with the plain build: a plain
+# build, an instrumented build, a training run of the instrumented binary through the load test's workload, a build
+# optimized with the recorded profile and finally a run of the same workload against the plain and optimized binaries.
+#
+# Usage: ./run-pgo.sh [maven options, e.g. -Dnative.gc=G1]
+#
+# PGO needs Oracle GraalVM as JAVA_HOME. The workload runs against the in-memory store.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PRODUCTS=software/products/target
+PROFILE=software/products/pgo/product.iprof
+DRIVER=(java -cp software/local/target/local-api-server.jar software.amazonaws.example.product.local.WorkloadDriver)
+
+mkdir -p load-test/results
+
+./mvnw -B package -Pnative-image "$@"
+cp "$PRODUCTS/product-binary" "$PRODUCTS/product-binary-plain"
+
+./mvnw -B package -pl software/products -Pnative-image,pgo-instrument "$@"
+"${DRIVER[@]}" --binary "$PRODUCTS/product-binary-instrumented" --profile "$PROFILE"
+
+./mvnw -B package -pl software/products -Pnative-image,pgo "$@"
+"${DRIVER[@]}" --binary "$PRODUCTS/product-binary-plain" --binary "$PRODUCTS/product-binary" \
+  | tee load-test/results/pgo.txt
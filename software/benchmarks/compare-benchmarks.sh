@@ -0,0 +1,27 @@
+#!/bin/bash
+# Compares two JMH JSON result files, e.g. those written by run-benchmarks.sh for two commits.
+#
+# Usage: ./compare-benchmarks.sh results/<before>.json results/<after>.json
+#
+# All suites report average time per operation, so a positive change is a regression.
+
+set -euo pipefail
+
+if [ $# -ne 2 ]; then
+  echo "Usage: $0 <before.json> <after.json>" >&2
+  exit 1
+fi
+
+KEY='.benchmark + (if .params then " " + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) else "" end)'
+
+jq -r -n --slurpfile before "$1" --slurpfile after "$2" "
+  (\$before[0] | map({key: ($KEY), value: .primaryMetric}) | from_entries) as \$b
+  | \$after[0][]
+  | ($KEY) as \$key
+  | select(\$b[\$key] != null)
+  | [\$key, \$b[\$key].score, .primaryMetric.score, .primaryMetric.scoreError, .primaryMetric.scoreUnit,
+     ((.primaryMetric.score - \$b[\$key].score) / \$b[\$key].score * 100)]
+  | @tsv" \
+| sed 's/software\.amazonaws\.example\.product\.benchmarks\.//' \
+| awk -F'\t' 'BEGIN { printf "%-60s %12s %12s %10s %-6s %8s\n", "BENCHMARK", "BEFORE", "AFTER", "ERROR", "UNIT", "CHANGE" }
+              { printf "%-60s %12.3f %12.3f %10.3f %-6s %+7.1f%%\n", $1, $2, $3, $4, $5, $6 }'
@@ -0,0 +1,22 @@
+#!/bin/bash
+# Builds the products and benchmarks modules and runs the JMH suites. Results are written as JSON to
+# results/<commit>.json so that two commits can be compared with compare-benchmarks.sh.
+#
+# Any arguments are passed to JMH, e.g. a benchmark regex or "-prof gc" for allocation rates:
+#   ./run-benchmarks.sh JsonCodecBenchmark -prof gc
+
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+COMMIT=$(git rev-parse --short HEAD)
+if ! git diff --quiet HEAD -- ../products; then
+  COMMIT="$COMMIT-dirty"
+fi
+
+(cd ../.. && ./mvnw -B -q -pl software/benchmarks -am -DskipTests package)
+
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/$COMMIT.json" "$@"
+
+echo "Results written to results/$COMMIT.json"
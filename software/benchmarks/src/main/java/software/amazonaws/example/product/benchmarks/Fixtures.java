@@ -0,0 +1,29 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.benchmarks;
+
+import software.amazonaws.example.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Product product(int i) {
+        return new Product(String.format("%08d-2c6f-4f2b-9a3e-5d1c7b0e8f4a", i), "Indigo Hats " + i,
+                BigDecimal.valueOf(1000 + i, 2));
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,93 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazonaws.example.product.entrypoints.ApiGatewayGetAllProductRequestHandler;
+import software.amazonaws.example.product.entrypoints.ApiGatewayGetProductRequestHandler;
+import software.amazonaws.example.product.entrypoints.ApiGatewayPutProductRequestHandler;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code handleRequest} invocations against an in-memory store: event parsing, validation, logging and
+ * serialization, without any network I/O. Handler logging is raised to WARN and metrics are disabled in the forked
+ * JVM so that console output does not dominate the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-DLOG_LEVEL=warn", "-DMETRICS_ENABLED=false"})
+@State(Scope.Benchmark)
+public class HandlerBenchmark {
+
+    private static final int STORED_PRODUCTS = 1_000;
+
+    private final Context context = new BenchmarkContext();
+
+    private ApiGatewayGetProductRequestHandler getHandler;
+    private ApiGatewayGetAllProductRequestHandler getAllHandler;
+    private ApiGatewayPutProductRequestHandler putHandler;
+
+    private APIGatewayV2HTTPEvent getEvent;
+    private APIGatewayV2HTTPEvent getAllEvent;
+    private APIGatewayV2HTTPEvent putEvent;
+
+    @Setup
+    public void setUp() {
+        ProductStore productStore = new InMemoryProductStore();
+        productStore.putProducts(Fixtures.products(STORED_PRODUCTS));
+
+        getHandler = new ApiGatewayGetProductRequestHandler(productStore);
+        getAllHandler = new ApiGatewayGetAllProductRequestHandler(productStore);
+        putHandler = new ApiGatewayPutProductRequestHandler(productStore);
+
+        Product product = Fixtures.product(STORED_PRODUCTS / 2);
+        getEvent = APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("GET /{id}")
+                .withPathParameters(Map.of("id", product.getId()))
+                .build();
+        getAllEvent = APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("GET /")
+                .build();
+        putEvent = APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("PUT /{id}")
+                .withPathParameters(Map.of("id", product.getId()))
+                .withBody(ProductJsonCodec.writeProduct(product))
+                .build();
+    }
+
+    @Benchmark
+    public APIGatewayV2HTTPResponse getProduct() {
+        return getHandler.handleRequest(getEvent, context);
+    }
+
+    @Benchmark
+    public APIGatewayV2HTTPResponse getAllProducts() {
+        return getAllHandler.handleRequest(getAllEvent, context);
+    }
+
+    @Benchmark
+    public APIGatewayV2HTTPResponse putProduct() {
+        return putHandler.handleRequest(putEvent, context);
+    }
+}
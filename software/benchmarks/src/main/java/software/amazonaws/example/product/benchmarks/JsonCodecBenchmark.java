@@ -0,0 +1,71 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.model.Products;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and response body serialization. {@code productCount} covers a single product, a default page and a full
+ * page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonCodecBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int productCount;
+
+    private Product product;
+    private Products products;
+    private String productJson;
+    private String productsJson;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product(42);
+        products = new Products(Fixtures.products(productCount), "cursor");
+        productJson = ProductJsonCodec.writeProduct(product);
+        productsJson = ProductJsonCodec.writeProducts(new Products(Fixtures.products(productCount)));
+    }
+
+    @Benchmark
+    public String writeProduct() {
+        return ProductJsonCodec.writeProduct(product);
+    }
+
+    @Benchmark
+    public Product readProduct() throws IOException {
+        return ProductJsonCodec.readProduct(productJson);
+    }
+
+    @Benchmark
+    public String writeProducts() {
+        return ProductJsonCodec.writeProducts(products);
+    }
+
+    @Benchmark
+    public Products readProducts() throws IOException {
+        return ProductJsonCodec.readProducts(productsJson);
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import software.amazonaws.example.product.logging.AsyncJsonAppender;
+import software.amazonaws.example.product.logging.JsonLoggerFactory;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The logging done by a PUT invocation, written to a discarding stream. {@code eager*} concatenates the request body
+ * into the message the way the handler used to; {@code parameterized*} passes it as an argument, which costs nothing
+ * when the level is disabled and defers formatting to the writer thread when it is enabled. Each invocation ends with
+ * the flush the handlers do before returning, so asynchronous writing is only faster to the extent that formatting
+ * overlaps with the rest of the request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"true", "false"})
+    private boolean async;
+
+    @Param({"INFO", "DEBUG"})
+    private Level level;
+
+    private JsonLoggerFactory factory;
+    private Logger logger;
+    private String body;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        factory = new JsonLoggerFactory(level, 0, new AsyncJsonAppender(OutputStream.nullOutputStream(), async, 1024));
+        logger = factory.getLogger(LoggingBenchmark.class.getName());
+        product = Fixtures.product(42);
+        body = ProductJsonCodec.writeProduct(product);
+    }
+
+    @Benchmark
+    public Product eager() {
+        logger.debug("Event body: " + body);
+        logger.debug("Parsed: " + product);
+        logger.info("Writing product " + product.getId());
+        factory.afterInvocation();
+        return product;
+    }
+
+    @Benchmark
+    public Product parameterized() {
+        logger.debug("Event body: {}", body);
+        logger.debug("Parsed: {}", product);
+        logger.info("Writing product {}", product.getId());
+        factory.afterInvocation();
+        return product;
+    }
+}
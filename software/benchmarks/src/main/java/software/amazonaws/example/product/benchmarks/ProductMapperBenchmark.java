@@ -0,0 +1,52 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.store.dynamodb.ProductMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion between {@link Product} and DynamoDB items, done once per item on every read and write path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    private Product product;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product(42);
+        item = ProductMapper.productToDynamoDb(product);
+    }
+
+    @Benchmark
+    public Product productFromDynamoDB() {
+        return ProductMapper.productFromDynamoDB(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> productToDynamoDb() {
+        return ProductMapper.productToDynamoDb(product);
+    }
+}
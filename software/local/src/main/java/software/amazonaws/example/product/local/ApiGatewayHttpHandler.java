@@ -0,0 +1,273 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Translates HTTP requests into API Gateway HTTP API (payload format 2.0) events, invokes a handler with them and
+ * writes its response back, the way API Gateway does for a Lambda proxy integration.
+ * <p>
+ * Requests are matched against route keys such as {@code "GET /{id}"}; routes with more literal path segments win
+ * over routes with path parameters. Unmatched requests get the same 404 response API Gateway returns.
+ */
+class ApiGatewayHttpHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewayHttpHandler.class);
+
+    private static final String NOT_FOUND = "{\"message\":\"Not Found\"}";
+    private static final String INTERNAL_SERVER_ERROR = "{\"message\":\"Internal Server Error\"}";
+
+    private final RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> handler;
+    private final List<Route> routes;
+    private final String functionName;
+    private final long timeoutMillis;
+
+    ApiGatewayHttpHandler(RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> handler,
+                          Collection<String> routeKeys, String functionName, long timeoutMillis) {
+        this.handler = handler;
+        this.functionName = functionName;
+        this.timeoutMillis = timeoutMillis;
+        this.routes = new ArrayList<>();
+        for (String routeKey : routeKeys) {
+            routes.add(new Route(routeKey));
+        }
+        routes.sort(Comparator.comparingInt(Route::literalSegments).reversed());
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            URI uri = exchange.getRequestURI();
+            String method = exchange.getRequestMethod();
+            String path = uri.getRawPath();
+
+            Map<String, String> pathParameters = new HashMap<>();
+            Route route = match(method, path, pathParameters);
+            if (route == null) {
+                send(exchange, 404, Map.of("content-type", "application/json"), NOT_FOUND.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            APIGatewayV2HTTPEvent event = toEvent(exchange, route, pathParameters);
+            APIGatewayV2HTTPResponse response;
+            try {
+                LocalContext context = new LocalContext(event.getRequestContext().getRequestId(), functionName, 1024,
+                        System.currentTimeMillis() + timeoutMillis);
+                response = handler.handleRequest(event, context);
+            } catch (RuntimeException e) {
+                // API Gateway answers a failed invocation with a generic 500
+                logger.error("Handler failed for {} {}", method, path, e);
+                send(exchange, 500, Map.of("content-type", "application/json"),
+                        INTERNAL_SERVER_ERROR.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            send(exchange, response);
+        }
+    }
+
+    private Route match(String method, String path, Map<String, String> pathParameters) {
+        String[] segments = segments(path);
+        for (Route route : routes) {
+            if (route.matches(method, segments, pathParameters)) {
+                return route;
+            }
+            pathParameters.clear();
+        }
+        return null;
+    }
+
+    private APIGatewayV2HTTPEvent toEvent(HttpExchange exchange, Route route, Map<String, String> pathParameters)
+            throws IOException {
+        URI uri = exchange.getRequestURI();
+        Map<String, String> headers = headers(exchange.getRequestHeaders());
+
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        boolean text = isText(headers.get("content-type"));
+
+        long now = System.currentTimeMillis();
+        return APIGatewayV2HTTPEvent.builder()
+                .withVersion("2.0")
+                .withRouteKey(route.key)
+                .withRawPath(uri.getRawPath())
+                .withRawQueryString(uri.getRawQuery() == null ? "" : uri.getRawQuery())
+                .withHeaders(headers)
+                .withQueryStringParameters(queryParameters(uri.getRawQuery()))
+                .withPathParameters(pathParameters.isEmpty() ? null : pathParameters)
+                .withBody(body.length == 0 ? null : text
+                        ? new String(body, StandardCharsets.UTF_8)
+                        : Base64.getEncoder().encodeToString(body))
+                .withIsBase64Encoded(body.length > 0 && !text)
+                .withRequestContext(APIGatewayV2HTTPEvent.RequestContext.builder()
+                        .withRouteKey(route.key)
+                        .withStage("$default")
+                        .withRequestId(UUID.randomUUID().toString())
+                        .withDomainName(headers.getOrDefault("host", "localhost"))
+                        .withTimeEpoch(now)
+                        .withHttp(APIGatewayV2HTTPEvent.RequestContext.Http.builder()
+                                .withMethod(exchange.getRequestMethod())
+                                .withPath(uri.getRawPath())
+                                .withProtocol(exchange.getProtocol())
+                                .withSourceIp(exchange.getRemoteAddress().getAddress().getHostAddress())
+                                .withUserAgent(headers.get("user-agent"))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static void send(HttpExchange exchange, APIGatewayV2HTTPResponse response) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach((name, value) -> headers.put(name.toLowerCase(), value));
+        }
+        // API Gateway defaults the content type of payload format 2.0 responses
+        headers.putIfAbsent("content-type", "application/json");
+
+        byte[] body = response.getBody() == null
+                ? new byte[0]
+                : response.getIsBase64Encoded()
+                ? Base64.getDecoder().decode(response.getBody())
+                : response.getBody().getBytes(StandardCharsets.UTF_8);
+
+        if (response.getMultiValueHeaders() != null) {
+            response.getMultiValueHeaders().forEach((name, values) -> values.forEach(value ->
+                    exchange.getResponseHeaders().add(name, value)));
+        }
+        send(exchange, response.getStatusCode(), headers, body);
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, Map<String, String> headers, byte[] body)
+            throws IOException {
+        headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        boolean noBody = body.length == 0 || statusCode == 204 || statusCode == 304
+                || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(statusCode, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static Map<String, String> headers(Headers requestHeaders) {
+        Map<String, String> headers = new HashMap<>();
+        requestHeaders.forEach((name, values) -> headers.put(name.toLowerCase(), String.join(",", values)));
+        return headers;
+    }
+
+    /**
+     * Parses a raw query string the way API Gateway does: values are decoded and repeated parameters are joined with
+     * commas.
+     */
+    static Map<String, String> queryParameters(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = decode(equals < 0 ? pair : pair.substring(0, equals));
+            String value = equals < 0 ? "" : decode(pair.substring(equals + 1));
+            parameters.merge(name, value, (first, second) -> first + "," + second);
+        }
+        return parameters;
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.contains("x-www-form-urlencoded");
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/", -1);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class Route {
+        private final String key;
+        private final String method;
+        private final String[] segments;
+        private final int literalSegments;
+
+        Route(String key) {
+            int space = key.indexOf(' ');
+            if (space < 0) {
+                throw new IllegalArgumentException("Route key must be '<METHOD> <path>': " + key);
+            }
+            this.key = key;
+            this.method = key.substring(0, space);
+            this.segments = ApiGatewayHttpHandler.segments(key.substring(space + 1));
+            int literals = 0;
+            for (String segment : segments) {
+                if (!isParameter(segment)) {
+                    literals++;
+                }
+            }
+            this.literalSegments = literals;
+        }
+
+        int literalSegments() {
+            return literalSegments;
+        }
+
+        boolean matches(String requestMethod, String[] requestSegments, Map<String, String> pathParameters) {
+            if (!method.equals(requestMethod) || segments.length != requestSegments.length) {
+                return false;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (isParameter(segments[i])) {
+                    pathParameters.put(segments[i].substring(1, segments[i].length() - 1), decode(requestSegments[i]));
+                } else if (!segments[i].equals(requestSegments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isParameter(String segment) {
+            return segment.startsWith("{") && segment.endsWith("}");
+        }
+    }
+}
@@ -0,0 +1,396 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Measures cold starts of the product functions on the local machine. For each handler the driver starts the function
+ * process (the shaded jar on a JVM, the native binary, or a JVM restored from a CRaC checkpoint) against a
+ * {@link RuntimeApiEmulator}, and records:
+ * <ul>
+ *     <li>init: from spawning the process to its first request for an event; for {@code crac} this is the restore</li>
+ *     <li>first invoke: latency of the first event</li>
+ *     <li>steady state: p50 and p99 latency of a run of events in one warm process</li>
+ * </ul>
+ * The functions run with {@code PRODUCT_STORE=memory} unless {@code PRODUCT_STORE} is set, so no AWS resources are
+ * needed.
+ * <pre>
+ * java -cp local-api-server.jar software.amazonaws.example.product.local.ColdStartDriver \
+ *     --runtime native --artifact software/products/target/product-binary --cold-starts 10 --output cold-start.json
+ * </pre>
+ * The {@code crac} runtime stands in for Lambda SnapStart and needs a JDK with CRaC support, such as Azul Zulu with
+ * CRaC, as {@code java} on the path. For each handler the driver first checkpoints a JVM running
+ * {@link CracCheckpoint} from {@code local-api-server.jar}, and then restores every cold start from that checkpoint.
+ */
+public class ColdStartDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdStartDriver.class);
+
+    private static final String PACKAGE = "software.amazonaws.example.product.entrypoints.";
+
+    /**
+     * Handler name to handler class and the event it is invoked with.
+     */
+    private static final Map<String, String[]> HANDLERS = new LinkedHashMap<>();
+
+    static {
+        HANDLERS.put("GetProduct", new String[]{"ApiGatewayGetProductRequestHandler", "get-product.json"});
+        HANDLERS.put("GetAllProducts", new String[]{"ApiGatewayGetAllProductRequestHandler", "get-all-products.json"});
+        HANDLERS.put("PutProduct", new String[]{"ApiGatewayPutProductRequestHandler", "put-product.json"});
+        HANDLERS.put("DeleteProduct", new String[]{"ApiGatewayDeleteProductRequestHandler", "delete-product.json"});
+        HANDLERS.put("BatchGetProducts",
+                new String[]{"ApiGatewayBatchGetProductRequestHandler", "batch-get-products.json"});
+        HANDLERS.put("BatchPutProducts",
+                new String[]{"ApiGatewayBatchPutProductRequestHandler", "batch-put-products.json"});
+        HANDLERS.put("BatchDeleteProducts",
+                new String[]{"ApiGatewayBatchDeleteProductRequestHandler", "batch-delete-products.json"});
+        HANDLERS.put("ProductRouter", new String[]{"ApiGatewayProductRouterHandler", "get-product.json"});
+    }
+
+    private static final long INIT_TIMEOUT_SECONDS = 60;
+    static final long INVOKE_TIMEOUT_SECONDS = 30;
+
+    private final String runtime;
+    private final Path artifact;
+    private final int coldStarts;
+    private final int invocations;
+    private final int memoryMb;
+    private final Path logDirectory;
+
+    ColdStartDriver(String runtime, Path artifact, int coldStarts, int invocations, int memoryMb, Path logDirectory) {
+        this.runtime = runtime;
+        this.artifact = artifact;
+        this.coldStarts = coldStarts;
+        this.invocations = invocations;
+        this.memoryMb = memoryMb;
+        this.logDirectory = logDirectory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String runtime = "jvm";
+        String artifact = null;
+        int coldStarts = 5;
+        int invocations = 200;
+        int memoryMb = 1024;
+        String output = null;
+        List<String> handlers = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runtime" -> runtime = args[++i];
+                case "--artifact" -> artifact = args[++i];
+                case "--cold-starts" -> coldStarts = Integer.parseInt(args[++i]);
+                case "--invocations" -> invocations = Integer.parseInt(args[++i]);
+                case "--memory" -> memoryMb = Integer.parseInt(args[++i]);
+                case "--handler" -> handlers.add(args[++i]);
+                case "--output" -> output = args[++i];
+                default -> {
+                    System.err.println("Usage: ColdStartDriver [--runtime jvm|native|crac] [--artifact PATH] "
+                            + "[--cold-starts N] [--invocations N] [--memory MB] [--handler NAME]... [--output FILE]");
+                    System.err.println("Handlers: " + String.join(", ", HANDLERS.keySet()));
+                    System.exit(1);
+                }
+            }
+        }
+
+        if (!List.of("jvm", "native", "crac").contains(runtime)) {
+            throw new IllegalArgumentException("--runtime must be 'jvm', 'native' or 'crac': " + runtime);
+        }
+        if (artifact == null) {
+            artifact = switch (runtime) {
+                case "jvm" -> "software/products/target/product.jar";
+                case "native" -> "software/products/target/product-binary";
+                default -> "software/local/target/local-api-server.jar";
+            };
+        }
+        if (handlers.isEmpty()) {
+            handlers.addAll(HANDLERS.keySet());
+        }
+
+        Path logDirectory = Files.createDirectories(Path.of("target", "cold-start", runtime));
+        ColdStartDriver driver = new ColdStartDriver(runtime, Path.of(artifact), coldStarts, invocations, memoryMb,
+                logDirectory);
+
+        List<Result> results = new ArrayList<>();
+        for (String handler : handlers) {
+            if (!HANDLERS.containsKey(handler)) {
+                throw new IllegalArgumentException("Unknown handler " + handler + ", expected one of "
+                        + HANDLERS.keySet());
+            }
+            results.add(driver.measure(handler));
+        }
+
+        print(runtime, results);
+        if (output != null) {
+            write(Path.of(output), runtime, results);
+            logger.info("Results written to {}", output);
+        }
+    }
+
+    Result measure(String name) throws Exception {
+        String handlerClass = PACKAGE + HANDLERS.get(name)[0];
+        String event = event(HANDLERS.get(name)[1]);
+        Result result = new Result(name);
+        Path checkpoint = runtime.equals("crac") ? checkpoint(handlerClass, name) : null;
+
+        for (int i = 0; i < coldStarts; i++) {
+            try (RuntimeApiEmulator emulator = new RuntimeApiEmulator(new InetSocketAddress("127.0.0.1", 0), name,
+                    TimeUnit.SECONDS.toMillis(INVOKE_TIMEOUT_SECONDS), Executors.newVirtualThreadPerTaskExecutor())) {
+                emulator.start();
+
+                File log = logDirectory.resolve(name + "-" + i + ".log").toFile();
+                long spawnedNanos = System.nanoTime();
+                Process process = start(handlerClass, name, emulator.getAddress(), checkpoint, log);
+                try {
+                    long initNanos = awaitInit(emulator, process, log) - spawnedNanos;
+                    result.initNanos.add(initNanos);
+
+                    RuntimeApiEmulator.Invocation first = await(emulator.invoke(event), name);
+                    result.firstInvokeNanos.add(first.getLatencyNanos());
+                    result.count(first);
+
+                    // Steady state is measured once, in the process started first
+                    for (int n = 0; i == 0 && n < invocations; n++) {
+                        RuntimeApiEmulator.Invocation invocation = await(emulator.invoke(event), name);
+                        result.steadyStateNanos.add(invocation.getLatencyNanos());
+                        result.count(invocation);
+                    }
+                } finally {
+                    stop(process);
+                }
+            }
+            logger.info("{} cold start {}/{}: init {} ms, first invoke {} ms", name, i + 1, coldStarts,
+                    millis(result.initNanos.get(i)), millis(result.firstInvokeNanos.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@link CracCheckpoint} for the handler until the JVM has written its checkpoint and exited.
+     *
+     * @return the checkpoint directory
+     */
+    private Path checkpoint(String handlerClass, String functionName) throws Exception {
+        Path directory = logDirectory.resolve(functionName + "-checkpoint").toAbsolutePath();
+        deleteRecursively(directory);
+        File log = logDirectory.resolve(functionName + "-checkpoint.log").toFile();
+
+        ProcessBuilder builder = new ProcessBuilder("java", "-XX:CRaCCheckpointTo=" + directory,
+                "-XX:+TieredCompilation", "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC",
+                "-cp", artifact.toString(), CracCheckpoint.class.getName(), handlerClass)
+                .redirectErrorStream(true)
+                .redirectOutput(log);
+        environment(builder, handlerClass, functionName, null, memoryMb);
+        Process process = builder.start();
+        if (!process.waitFor(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            stop(process);
+            throw new IllegalStateException("Checkpoint was not written within " + INIT_TIMEOUT_SECONDS + "s, see "
+                    + log);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            if (files.findAny().isEmpty()) {
+                throw new IllegalStateException("No checkpoint was written, see " + log);
+            }
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("No checkpoint was written, see " + log, e);
+        }
+        logger.info("{} checkpointed to {}", functionName, directory);
+        return directory;
+    }
+
+    private Process start(String handlerClass, String functionName, String runtimeApi, Path checkpoint, File log)
+            throws IOException {
+        List<String> command = switch (runtime) {
+            case "jvm" -> List.of("java",
+                    // The options the managed Java runtime starts the JVM with
+                    "-XX:+TieredCompilation", "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC",
+                    "-jar", artifact.toString(), handlerClass);
+            case "crac" -> List.of("java", "-XX:CRaCRestoreFrom=" + checkpoint);
+            default -> List.of(artifact.toString(), handlerClass);
+        };
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log);
+        environment(builder, handlerClass, functionName, runtimeApi, memoryMb);
+        return builder.start();
+    }
+
+    /**
+     * Sets the variables Lambda starts a function with. {@code runtimeApi} is {@code null} for a process that never
+     * polls for events.
+     */
+    static void environment(ProcessBuilder builder, String handlerClass, String functionName, String runtimeApi,
+                            int memoryMb) {
+        Map<String, String> environment = builder.environment();
+        if (runtimeApi != null) {
+            environment.put("AWS_LAMBDA_RUNTIME_API", runtimeApi);
+        }
+        environment.put("_HANDLER", handlerClass);
+        environment.put("AWS_LAMBDA_FUNCTION_NAME", functionName);
+        environment.put("AWS_LAMBDA_FUNCTION_VERSION", "$LATEST");
+        environment.put("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", String.valueOf(memoryMb));
+        environment.put("AWS_LAMBDA_LOG_GROUP_NAME", "/aws/lambda/" + functionName);
+        environment.put("AWS_LAMBDA_LOG_STREAM_NAME", "local");
+        environment.putIfAbsent("AWS_REGION", "us-east-1");
+        environment.putIfAbsent("PRODUCT_TABLE_NAME", "Products");
+        environment.putIfAbsent("PRODUCT_STORE", "memory");
+        environment.putIfAbsent("PRODUCT_STORE_SEED_COUNT", "100");
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    static long awaitInit(RuntimeApiEmulator emulator, Process process, File log) throws Exception {
+        CompletableFuture<Object> initialized = CompletableFuture.anyOf(emulator.firstPoll(), emulator.initError(),
+                process.onExit());
+        try {
+            initialized.get(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Function did not initialize within " + INIT_TIMEOUT_SECONDS
+                    + "s, see " + log, e);
+        }
+        if (!emulator.firstPoll().isDone()) {
+            throw new IllegalStateException("Function failed to initialize, see " + log);
+        }
+        return emulator.firstPoll().get();
+    }
+
+    static RuntimeApiEmulator.Invocation await(CompletableFuture<RuntimeApiEmulator.Invocation> invocation,
+                                               String name) throws Exception {
+        try {
+            return invocation.get(INVOKE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(name + " did not respond within " + INVOKE_TIMEOUT_SECONDS + "s", e);
+        }
+    }
+
+    static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(5, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    static String event(String resource) throws IOException {
+        try (InputStream in = ColdStartDriver.class.getResourceAsStream("/events/" + resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing event resource " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void print(String runtime, List<Result> results) {
+        System.out.printf("%n%-20s %8s %10s %10s %12s %12s %10s %10s %7s%n", "HANDLER (" + runtime + ")", "COLD",
+                "INIT_P50", "INIT_MAX", "FIRST_P50", "FIRST_MAX", "WARM_P50", "WARM_P99", "ERRORS");
+        for (Result result : results) {
+            System.out.printf("%-20s %8d %10.1f %10.1f %12.1f %12.1f %10.2f %10.2f %7d%n", result.name,
+                    result.initNanos.size(),
+                    millis(percentile(result.initNanos, 50)), millis(percentile(result.initNanos, 100)),
+                    millis(percentile(result.firstInvokeNanos, 50)), millis(percentile(result.firstInvokeNanos, 100)),
+                    millis(percentile(result.steadyStateNanos, 50)), millis(percentile(result.steadyStateNanos, 99)),
+                    result.errors);
+        }
+    }
+
+    private static void write(Path output, String runtime, List<Result> results) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(output.toFile(), JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeStringField("runtime", runtime);
+            generator.writeArrayFieldStart("handlers");
+            for (Result result : results) {
+                generator.writeStartObject();
+                generator.writeStringField("handler", result.name);
+                generator.writeNumberField("coldStarts", result.initNanos.size());
+                generator.writeNumberField("errors", result.errors);
+                writeMillis(generator, "initMs", result.initNanos);
+                writeMillis(generator, "firstInvokeMs", result.firstInvokeNanos);
+                generator.writeObjectFieldStart("steadyStateMs");
+                generator.writeNumberField("count", result.steadyStateNanos.size());
+                generator.writeNumberField("p50", millis(percentile(result.steadyStateNanos, 50)));
+                generator.writeNumberField("p99", millis(percentile(result.steadyStateNanos, 99)));
+                generator.writeNumberField("max", millis(percentile(result.steadyStateNanos, 100)));
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeMillis(JsonGenerator generator, String field, List<Long> nanos) throws IOException {
+        generator.writeArrayFieldStart(field);
+        for (long value : nanos) {
+            generator.writeNumber(millis(value));
+        }
+        generator.writeEndArray();
+    }
+
+    static long percentile(List<Long> values, int percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static final class Result {
+        private final String name;
+        private final List<Long> initNanos = new ArrayList<>();
+        private final List<Long> firstInvokeNanos = new ArrayList<>();
+        private final List<Long> steadyStateNanos = new ArrayList<>();
+        private int errors;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        void count(RuntimeApiEmulator.Invocation invocation) {
+            if (invocation.getErrorType() != null) {
+                errors++;
+            }
+        }
+    }
+}
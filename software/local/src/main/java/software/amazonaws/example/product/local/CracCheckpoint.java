@@ -0,0 +1,34 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.amazonaws.services.lambda.runtime.api.client.AWSLambda;
+import org.crac.Core;
+
+/**
+ * Starts a function the way Lambda SnapStart does, for {@link ColdStartDriver} on a JVM with CRaC support: the handler
+ * is constructed, as in the init phase, and the JVM is checkpointed to the directory given with
+ * {@code -XX:CRaCCheckpointTo}, running the handlers' checkpoint hooks. A JVM started with
+ * {@code -XX:CRaCRestoreFrom} continues after the checkpoint and hands over to the runtime interface client, which
+ * polls the Runtime API named in the environment of the restoring process.
+ * <pre>
+ * java -XX:CRaCCheckpointTo=target/crac -cp local-api-server.jar \
+ *     software.amazonaws.example.product.local.CracCheckpoint \
+ *     software.amazonaws.example.product.entrypoints.ApiGatewayGetProductRequestHandler
+ * </pre>
+ */
+public class CracCheckpoint {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: CracCheckpoint HANDLER_CLASS");
+            System.exit(1);
+        }
+
+        Class.forName(args[0]).getConstructor().newInstance();
+        Core.checkpointRestore();
+
+        AWSLambda.main(args);
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.entrypoints.ApiGatewayProductRouterHandler;
+import software.amazonaws.example.product.store.SynchronousAsyncProductStore;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the product API over plain HTTP on the local machine, standing in for API Gateway in front of the product
+ * functions. Every request is translated into the event API Gateway would send and handed to the same handlers the
+ * functions run, so load tests can run offline against both the JVM build and a native image of this server.
+ * <p>
+ * Configured with environment variables:
+ * <ul>
+ *     <li>{@code PORT}: port to listen on, {@value #DEFAULT_PORT} by default</li>
+ *     <li>{@code PRODUCT_STORE}: {@code memory} (default) for an {@link InMemoryProductStore}, configured as described
+ *     there, or {@code dynamodb} for the table named by {@code PRODUCT_TABLE_NAME}</li>
+ *     <li>{@code FUNCTION_TIMEOUT_SECONDS}: the timeout reported through the Lambda context,
+ *     {@value #DEFAULT_TIMEOUT_SECONDS} by default</li>
+ * </ul>
+ * Each request is handled on its own virtual thread, so the server is never the bottleneck of a load test.
+ */
+public class LocalApiServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalApiServer.class);
+
+    static final int DEFAULT_PORT = 3000;
+    static final int DEFAULT_TIMEOUT_SECONDS = 29;
+
+    private final HttpServer server;
+
+    public LocalApiServer(InetSocketAddress address,
+                          RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> handler,
+                          Collection<String> routeKeys, long timeoutMillis, Executor executor) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/", new ApiGatewayHttpHandler(handler, routeKeys, "local-product-api", timeoutMillis));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(environment("PORT", String.valueOf(DEFAULT_PORT)));
+        String store = environment("PRODUCT_STORE", "memory");
+        long timeoutMillis = Long.parseLong(environment("FUNCTION_TIMEOUT_SECONDS",
+                String.valueOf(DEFAULT_TIMEOUT_SECONDS))) * 1000;
+
+        ApiGatewayProductRouterHandler handler = switch (store) {
+            case "memory" -> {
+                InMemoryProductStore productStore = InMemoryProductStore.fromEnvironment();
+                yield new ApiGatewayProductRouterHandler(productStore, new SynchronousAsyncProductStore(productStore));
+            }
+            case "dynamodb" -> new ApiGatewayProductRouterHandler();
+            default -> throw new IllegalArgumentException("PRODUCT_STORE must be 'memory' or 'dynamodb': " + store);
+        };
+
+        LocalApiServer server = new LocalApiServer(new InetSocketAddress(port), handler, handler.getRouteKeys(),
+                timeoutMillis, Executors.newVirtualThreadPerTaskExecutor());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+
+        logger.info("Serving {} routes from the {} store on http://localhost:{}", handler.getRouteKeys().size(), store,
+                server.getPort());
+    }
+
+    private static String environment(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
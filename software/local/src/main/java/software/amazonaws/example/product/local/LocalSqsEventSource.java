@@ -0,0 +1,192 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for an SQS queue and the Lambda event source mapping that polls it, for running queue-driven handlers such
+ * as {@code SqsPutProductRequestHandler} on the local machine.
+ * <p>
+ * Messages are delivered in batches of up to {@code batchSize}, waiting at most {@code batchingWindowMillis} for a
+ * batch to fill. Messages reported in the handler's batch item failures, or every message of the batch if the handler
+ * throws, are put back on the queue; after {@code maxReceiveCount} receives a message is moved to the dead letters
+ * instead. Batches are handled one at a time, like a mapping with a maximum concurrency of one.
+ */
+public class LocalSqsEventSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalSqsEventSource.class);
+
+    private static final String QUEUE_ARN = "arn:aws:sqs:local:000000000000:product-ingest";
+
+    private final RequestHandler<SQSEvent, SQSBatchResponse> handler;
+    private final int batchSize;
+    private final long batchingWindowMillis;
+    private final int maxReceiveCount;
+    private final long timeoutMillis;
+    private final BlockingQueue<SQSEvent.SQSMessage> queue = new LinkedBlockingQueue<>();
+    private final List<SQSEvent.SQSMessage> deadLetters = new CopyOnWriteArrayList<>();
+    private final Thread poller;
+    private final Object lock = new Object();
+    private int outstanding;
+    private int invocations;
+
+    public LocalSqsEventSource(RequestHandler<SQSEvent, SQSBatchResponse> handler, int batchSize,
+                               long batchingWindowMillis, int maxReceiveCount, long timeoutMillis) {
+        if (batchSize < 1 || maxReceiveCount < 1) {
+            throw new IllegalArgumentException("batchSize and maxReceiveCount must be at least 1");
+        }
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.batchingWindowMillis = batchingWindowMillis;
+        this.maxReceiveCount = maxReceiveCount;
+        this.timeoutMillis = timeoutMillis;
+        this.poller = new Thread(this::poll, "local-sqs-event-source");
+        this.poller.setDaemon(true);
+    }
+
+    public void start() {
+        poller.start();
+    }
+
+    /**
+     * Sends a message to the queue.
+     *
+     * @return the message ID
+     */
+    public String send(String body) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(UUID.randomUUID().toString());
+        message.setBody(body);
+        message.setEventSource("aws:sqs");
+        message.setEventSourceArn(QUEUE_ARN);
+        message.setAwsRegion("local");
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("SentTimestamp", String.valueOf(System.currentTimeMillis()));
+        attributes.put("ApproximateReceiveCount", "0");
+        message.setAttributes(attributes);
+
+        synchronized (lock) {
+            outstanding++;
+        }
+        queue.add(message);
+        return message.getMessageId();
+    }
+
+    /**
+     * Waits until every message sent so far has been processed or dead-lettered.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean awaitEmpty(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (outstanding > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    public List<SQSEvent.SQSMessage> getDeadLetters() {
+        return List.copyOf(deadLetters);
+    }
+
+    public int getInvocations() {
+        synchronized (lock) {
+            return invocations;
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.interrupt();
+    }
+
+    private void poll() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                deliver(nextBatch());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<SQSEvent.SQSMessage> nextBatch() throws InterruptedException {
+        List<SQSEvent.SQSMessage> batch = new ArrayList<>(batchSize);
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchingWindowMillis);
+        while (batch.size() < batchSize) {
+            SQSEvent.SQSMessage message = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private void deliver(List<SQSEvent.SQSMessage> batch) {
+        for (SQSEvent.SQSMessage message : batch) {
+            int receiveCount = Integer.parseInt(message.getAttributes().get("ApproximateReceiveCount")) + 1;
+            message.getAttributes().put("ApproximateReceiveCount", String.valueOf(receiveCount));
+        }
+        SQSEvent event = new SQSEvent();
+        event.setRecords(batch);
+
+        Set<String> failed = new HashSet<>();
+        try {
+            SQSBatchResponse response = handler.handleRequest(event, new LocalContext(UUID.randomUUID().toString(),
+                    "product-ingest", 1024, System.currentTimeMillis() + timeoutMillis));
+            if (response != null && response.getBatchItemFailures() != null) {
+                for (SQSBatchResponse.BatchItemFailure failure : response.getBatchItemFailures()) {
+                    failed.add(failure.getItemIdentifier());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Handler failed, returning {} message(s) to the queue", batch.size(), e);
+            batch.forEach(message -> failed.add(message.getMessageId()));
+        }
+
+        int done = 0;
+        for (SQSEvent.SQSMessage message : batch) {
+            if (!failed.contains(message.getMessageId())) {
+                done++;
+            } else if (Integer.parseInt(message.getAttributes().get("ApproximateReceiveCount")) >= maxReceiveCount) {
+                logger.warn("Moving message {} to the dead letters", message.getMessageId());
+                deadLetters.add(message);
+                done++;
+            } else {
+                queue.add(message);
+            }
+        }
+
+        synchronized (lock) {
+            invocations++;
+            outstanding -= done;
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Stand-in for the <a href="https://docs.aws.amazon.com/lambda/latest/dg/runtimes-api.html">Lambda Runtime API</a>
+ * that a function process polls for events, implementing the {@code next}, {@code response}, {@code error} and
+ * {@code init/error} endpoints.
+ * <p>
+ * Events are queued with {@link #invoke(String)} and handed to the runtime in order, one per {@code next} request.
+ * Timestamps are taken with {@link System#nanoTime()} when an event is queued, fetched by the runtime and answered, so
+ * that init duration and invocation latency can be measured from outside the function.
+ */
+public class RuntimeApiEmulator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeApiEmulator.class);
+
+    private static final String PREFIX = "/2018-06-01/runtime/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String functionArn;
+    private final long timeoutMillis;
+    private final BlockingQueue<Invocation> pending = new LinkedBlockingQueue<>();
+    private final Map<String, Invocation> inFlight = new ConcurrentHashMap<>();
+    private final CompletableFuture<Long> firstPoll = new CompletableFuture<>();
+    private final CompletableFuture<String> initError = new CompletableFuture<>();
+
+    /**
+     * @param executor runs the HTTP exchanges; {@code next} blocks until an event is queued, so it must not be bounded
+     */
+    public RuntimeApiEmulator(InetSocketAddress address, String functionName, long timeoutMillis,
+                              ExecutorService executor) throws IOException {
+        this.functionArn = "arn:aws:lambda:local:000000000000:function:" + functionName;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(PREFIX, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the value for {@code AWS_LAMBDA_RUNTIME_API}
+     */
+    public String getAddress() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Completes with the {@link System#nanoTime()} at which the runtime first asked for an event, i.e. when the function
+     * finished initializing.
+     */
+    public CompletableFuture<Long> firstPoll() {
+        return firstPoll;
+    }
+
+    /**
+     * Completes with the error body if the runtime reports an initialization error.
+     */
+    public CompletableFuture<String> initError() {
+        return initError;
+    }
+
+    /**
+     * Queues an event for the runtime.
+     *
+     * @return completes once the runtime has posted a response or an error for the event
+     */
+    public CompletableFuture<Invocation> invoke(String payload) {
+        Invocation invocation = new Invocation(UUID.randomUUID().toString(), payload);
+        pending.add(invocation);
+        return invocation.result;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        Invocation invocation;
+        while ((invocation = pending.poll()) != null) {
+            invocation.result.completeExceptionally(new IllegalStateException("Runtime API emulator closed"));
+        }
+        inFlight.values().forEach(i -> i.result.completeExceptionally(
+                new IllegalStateException("Runtime API emulator closed")));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            String method = exchange.getRequestMethod();
+
+            if ("GET".equals(method) && path.equals("invocation/next")) {
+                next(exchange);
+            } else if ("POST".equals(method) && path.startsWith("invocation/") && path.endsWith("/response")) {
+                complete(exchange, path.substring("invocation/".length(), path.length() - "/response".length()),
+                        false);
+            } else if ("POST".equals(method) && path.startsWith("invocation/") && path.endsWith("/error")) {
+                complete(exchange, path.substring("invocation/".length(), path.length() - "/error".length()), true);
+            } else if ("POST".equals(method) && path.equals("init/error")) {
+                String body = body(exchange);
+                logger.error("Function failed to initialize: {}", body);
+                initError.complete(body);
+                send(exchange, 202, "{\"status\":\"OK\"}");
+            } else {
+                send(exchange, 404, "{\"errorMessage\":\"Unknown endpoint\"}");
+            }
+        }
+    }
+
+    private void next(HttpExchange exchange) throws IOException {
+        firstPoll.complete(System.nanoTime());
+
+        Invocation invocation;
+        try {
+            invocation = pending.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        invocation.startedNanos = System.nanoTime();
+        inFlight.put(invocation.requestId, invocation);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Lambda-Runtime-Aws-Request-Id", invocation.requestId);
+        exchange.getResponseHeaders().set("Lambda-Runtime-Deadline-Ms",
+                String.valueOf(System.currentTimeMillis() + timeoutMillis));
+        exchange.getResponseHeaders().set("Lambda-Runtime-Invoked-Function-Arn", functionArn);
+        exchange.getResponseHeaders().set("Lambda-Runtime-Trace-Id",
+                "Root=1-00000000-000000000000000000000000;Parent=0000000000000000;Sampled=0");
+        send(exchange, 200, invocation.payload);
+    }
+
+    private void complete(HttpExchange exchange, String requestId, boolean error) throws IOException {
+        String body = body(exchange);
+        Invocation invocation = inFlight.remove(requestId);
+        if (invocation == null) {
+            send(exchange, 400, "{\"errorMessage\":\"Unknown request id\"}");
+            return;
+        }
+
+        invocation.completedNanos = System.nanoTime();
+        invocation.response = body;
+        if (error) {
+            invocation.errorType = exchange.getRequestHeaders().getFirst("Lambda-Runtime-Function-Error-Type");
+            if (invocation.errorType == null) {
+                invocation.errorType = "Unhandled";
+            }
+        }
+        send(exchange, 202, "{\"status\":\"OK\"}");
+        invocation.result.complete(invocation);
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * One event and, once completed, the runtime's answer to it.
+     */
+    public static final class Invocation {
+        private final String requestId;
+        private final String payload;
+        private final long queuedNanos = System.nanoTime();
+        private final CompletableFuture<Invocation> result = new CompletableFuture<>();
+        private volatile long startedNanos;
+        private volatile long completedNanos;
+        private volatile String response;
+        private volatile String errorType;
+
+        private Invocation(String requestId, String payload) {
+            this.requestId = requestId;
+            this.payload = payload;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+
+        /**
+         * @return the error type reported by the runtime, or {@code null} if the invocation succeeded
+         */
+        public String getErrorType() {
+            return errorType;
+        }
+
+        /**
+         * @return nanoseconds from queuing the event to receiving the response, including time spent waiting for the
+         * runtime to ask for it
+         */
+        public long getLatencyNanos() {
+            return completedNanos - queuedNanos;
+        }
+
+        /**
+         * @return nanoseconds from handing the event to the runtime to receiving the response
+         */
+        public long getDurationNanos() {
+            return completedNanos - startedNanos;
+        }
+    }
+}
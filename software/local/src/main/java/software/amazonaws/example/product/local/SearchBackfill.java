@@ -0,0 +1,34 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import software.amazonaws.example.product.store.dynamodb.DynamoDbAsyncProductStore;
+
+/**
+ * Makes the products written before the search indexes were deployed searchable, see
+ * {@link DynamoDbAsyncProductStore#backfillSearchAttributes(int, int)}. Run it once against the deployed table, with
+ * credentials allowed to scan and update it:
+ * <pre>
+ * PRODUCT_TABLE_NAME=Products java -cp local-api-server.jar \
+ *     software.amazonaws.example.product.local.SearchBackfill [SEGMENTS [MAX_IN_FLIGHT]]
+ * </pre>
+ */
+public class SearchBackfill {
+
+    private static final int DEFAULT_SEGMENTS = 8;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    public static void main(String[] args) {
+        if (args.length > 2 || System.getenv("PRODUCT_TABLE_NAME") == null) {
+            System.err.println("Usage: PRODUCT_TABLE_NAME=TABLE SearchBackfill [SEGMENTS [MAX_IN_FLIGHT]]");
+            System.exit(1);
+        }
+
+        int segments = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SEGMENTS;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_IN_FLIGHT;
+
+        long updated = new DynamoDbAsyncProductStore().backfillSearchAttributes(segments, maxInFlight);
+        System.out.println("Added search attributes to " + updated + " product(s)");
+    }
+}
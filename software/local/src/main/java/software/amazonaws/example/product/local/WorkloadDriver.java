@@ -0,0 +1,224 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives native product binaries through the workload of {@code load-test/load-test.yml}, for profile-guided
+ * optimization: it is the training run of an instrumented binary, and compares the throughput and latency of binaries
+ * built with and without the recorded profile.
+ * <p>
+ * Each binary runs the {@code ApiGatewayProductRouterHandler} against a {@link RuntimeApiEmulator}, so one process
+ * exercises the get, get all, put and delete handlers. Scenarios are picked with the load test's weights: 8 in 10 put
+ * a product, get it and delete it, the others list the first page of products. The sequence is the same for every
+ * binary. Invocations are sent one at a time, as Lambda does, so throughput is the inverse of the mean latency.
+ * <pre>
+ * java -cp local-api-server.jar software.amazonaws.example.product.local.WorkloadDriver \
+ *     --binary software/products/target/product-binary-instrumented --profile software/products/pgo/product.iprof
+ * java -cp local-api-server.jar software.amazonaws.example.product.local.WorkloadDriver \
+ *     --binary product-binary-plain --binary software/products/target/product-binary
+ * </pre>
+ */
+public class WorkloadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadDriver.class);
+
+    private static final String HANDLER =
+            "software.amazonaws.example.product.entrypoints.ApiGatewayProductRouterHandler";
+    private static final String FUNCTION_NAME = "ProductRouter";
+    private static final String EVENT_ID = "00000001";
+
+    // Scenario weights in load-test.yml
+    private static final int GENERATE_PRODUCTS_WEIGHT = 8;
+    private static final int GET_PRODUCTS_WEIGHT = 2;
+
+    private static final long SEED = 42;
+    private static final long PROFILE_TIMEOUT_SECONDS = 60;
+
+    private final String putEvent;
+    private final String getEvent;
+    private final String deleteEvent;
+    private final String getAllEvent;
+    private final int warmup;
+    private final int scenarios;
+
+    WorkloadDriver(int warmup, int scenarios) throws Exception {
+        this.putEvent = ColdStartDriver.event("put-product.json");
+        this.getEvent = ColdStartDriver.event("get-product.json");
+        this.deleteEvent = ColdStartDriver.event("delete-product.json");
+        this.getAllEvent = ColdStartDriver.event("get-all-products.json");
+        this.warmup = warmup;
+        this.scenarios = scenarios;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> binaries = new ArrayList<>();
+        String profile = null;
+        int warmup = 1000;
+        int scenarios = 10_000;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--binary" -> binaries.add(args[++i]);
+                case "--profile" -> profile = args[++i];
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--scenarios" -> scenarios = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Usage: WorkloadDriver --binary PATH [--binary PATH]... [--profile FILE] "
+                            + "[--warmup N] [--scenarios N]");
+                    System.exit(1);
+                }
+            }
+        }
+        if (binaries.isEmpty()) {
+            throw new IllegalArgumentException("At least one --binary is required");
+        }
+        if (profile != null && binaries.size() != 1) {
+            throw new IllegalArgumentException("--profile records the profile of a single instrumented --binary");
+        }
+
+        Path logDirectory = Files.createDirectories(Path.of("target", "workload"));
+        WorkloadDriver driver = new WorkloadDriver(warmup, scenarios);
+        List<Result> results = new ArrayList<>();
+        for (String binary : binaries) {
+            results.add(driver.run(Path.of(binary), profile != null ? Path.of(profile) : null, logDirectory));
+        }
+        print(results);
+    }
+
+    /**
+     * @param profile where an instrumented binary writes its profile, or {@code null}
+     */
+    Result run(Path binary, Path profile, Path logDirectory) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(binary.toString());
+        if (profile != null) {
+            Files.createDirectories(profile.toAbsolutePath().getParent());
+            Files.deleteIfExists(profile);
+            command.add("-XX:ProfilesDumpFile=" + profile.toAbsolutePath());
+        }
+        command.add(HANDLER);
+
+        Result result = new Result(binary.getFileName().toString());
+        try (RuntimeApiEmulator emulator = new RuntimeApiEmulator(new InetSocketAddress("127.0.0.1", 0), FUNCTION_NAME,
+                TimeUnit.SECONDS.toMillis(ColdStartDriver.INVOKE_TIMEOUT_SECONDS),
+                Executors.newVirtualThreadPerTaskExecutor())) {
+            emulator.start();
+
+            File log = logDirectory.resolve(result.name + ".log").toFile();
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log);
+            ColdStartDriver.environment(builder, HANDLER, FUNCTION_NAME, emulator.getAddress(), 1024);
+            Process process = builder.start();
+            try {
+                ColdStartDriver.awaitInit(emulator, process, log);
+
+                Random random = new Random(SEED);
+                for (int n = 0; n < warmup; n++) {
+                    scenario(emulator, random, n, null);
+                }
+                long start = System.nanoTime();
+                for (int n = 0; n < scenarios; n++) {
+                    scenario(emulator, random, warmup + n, result);
+                }
+                result.elapsedNanos = System.nanoTime() - start;
+            } finally {
+                // SIGTERM, on which an instrumented binary writes its profile
+                ColdStartDriver.stop(process);
+            }
+            if (profile != null) {
+                awaitProfile(process, profile);
+            }
+        }
+        logger.info("{}: {} invocations in {} ms", result.name, result.latencyNanos.size(),
+                ColdStartDriver.millis(result.elapsedNanos));
+        return result;
+    }
+
+    private void scenario(RuntimeApiEmulator emulator, Random random, int n, Result result) throws Exception {
+        if (random.nextInt(GENERATE_PRODUCTS_WEIGHT + GET_PRODUCTS_WEIGHT) < GENERATE_PRODUCTS_WEIGHT) {
+            // Products the seeded store does not have, so that each put creates one
+            String id = String.format("%08d", 10_000_000 + n);
+            invoke(emulator, putEvent.replace(EVENT_ID, id), result);
+            invoke(emulator, getEvent.replace(EVENT_ID, id), result);
+            invoke(emulator, deleteEvent.replace(EVENT_ID, id), result);
+        } else {
+            invoke(emulator, getAllEvent, result);
+        }
+    }
+
+    private static void invoke(RuntimeApiEmulator emulator, String event, Result result) throws Exception {
+        RuntimeApiEmulator.Invocation invocation = ColdStartDriver.await(emulator.invoke(event), FUNCTION_NAME);
+        if (result != null) {
+            result.latencyNanos.add(invocation.getLatencyNanos());
+            if (invocation.getErrorType() != null) {
+                result.errors++;
+            }
+        }
+    }
+
+    private static void awaitProfile(Process process, Path profile) throws Exception {
+        process.waitFor(PROFILE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!Files.exists(profile)) {
+            throw new IllegalStateException("No profile was written to " + profile
+                    + "; was the binary built with the pgo-instrument profile?");
+        }
+        logger.info("Profile written to {}", profile);
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf("%n%-32s %12s %10s %10s %10s %10s %7s%n", "BINARY", "INVOCATIONS", "RPS", "P50_MS",
+                "P95_MS", "P99_MS", "ERRORS");
+        Result baseline = results.get(0);
+        for (Result result : results) {
+            System.out.printf("%-32s %12d %10.1f %10.3f %10.3f %10.3f %7d%n", result.name, result.latencyNanos.size(),
+                    result.throughput(), ColdStartDriver.millis(result.percentile(50)),
+                    ColdStartDriver.millis(result.percentile(95)), ColdStartDriver.millis(result.percentile(99)),
+                    result.errors);
+            if (result != baseline) {
+                System.out.printf("%-32s %12s %+9.1f%% %+9.1f%% %+9.1f%% %+9.1f%%%n", "  vs " + baseline.name, "",
+                        change(baseline.throughput(), result.throughput()),
+                        change(baseline.percentile(50), result.percentile(50)),
+                        change(baseline.percentile(95), result.percentile(95)),
+                        change(baseline.percentile(99), result.percentile(99)));
+            }
+        }
+    }
+
+    private static double change(double baseline, double value) {
+        return baseline == 0 ? 0 : (value - baseline) / baseline * 100;
+    }
+
+    static final class Result {
+        private final String name;
+        private final List<Long> latencyNanos = new ArrayList<>();
+        private long elapsedNanos;
+        private int errors;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        double throughput() {
+            return elapsedNanos == 0 ? 0 : latencyNanos.size() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long percentile(int percentile) {
+            return ColdStartDriver.percentile(latencyNanos, percentile);
+        }
+    }
+}
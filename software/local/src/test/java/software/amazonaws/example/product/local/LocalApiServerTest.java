@@ -0,0 +1,95 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import software.amazonaws.example.product.entrypoints.ApiGatewayProductRouterHandler;
+import software.amazonaws.example.product.store.SynchronousAsyncProductStore;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LocalApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ExecutorService executor;
+    private LocalApiServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        InMemoryProductStore productStore = new InMemoryProductStore();
+        ApiGatewayProductRouterHandler handler =
+                new ApiGatewayProductRouterHandler(productStore, new SynchronousAsyncProductStore(productStore));
+        executor = Executors.newCachedThreadPool();
+        server = new LocalApiServer(new InetSocketAddress("localhost", 0), handler, handler.getRouteKeys(), 1_000,
+                executor);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void servesProductLifecycle() throws Exception {
+        HttpResponse<String> put = send("PUT", "/111", "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34}");
+        assertEquals(201, put.statusCode());
+
+        HttpResponse<String> get = send("GET", "/111", null);
+        assertEquals(200, get.statusCode());
+        assertEquals("application/json", get.headers().firstValue("content-type").orElseThrow());
+        JSONAssert.assertEquals("{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34, \"version\": 1}",
+                get.body(), JSONCompareMode.STRICT);
+
+        HttpResponse<String> batch = send("POST", "/batch/get", "{\"ids\": [\"111\", \"222\"]}");
+        assertEquals(200, batch.statusCode());
+        JSONAssert.assertEquals("{\"products\": [{\"id\": \"111\"}]}", batch.body(), JSONCompareMode.LENIENT);
+
+        assertEquals(200, send("DELETE", "/111", null).statusCode());
+        assertEquals(404, send("GET", "/111", null).statusCode());
+    }
+
+    @Test
+    public void passesQueryParameters() throws Exception {
+        HttpResponse<String> response = send("GET", "/?limit=0", null);
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    public void rejectsUnknownRoutes() throws Exception {
+        assertEquals(404, send("GET", "/batch/get/more", null).statusCode());
+        assertEquals(404, send("PATCH", "/111", "{}").statusCode());
+    }
+
+    @Test
+    public void joinsRepeatedQueryParameters() {
+        assertEquals(Map.of("a", "1,2", "b", "x y"), ApiGatewayHttpHandler.queryParameters("a=1&b=x+y&a=2"));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.entrypoints.SqsPutProductRequestHandler;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.store.SynchronousAsyncProductStore;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalSqsEventSourceTest {
+
+    @Test
+    public void ingestsTheLatestWriteOfEachProduct() throws Exception {
+        InMemoryProductStore productStore = new InMemoryProductStore();
+        SqsPutProductRequestHandler handler =
+                new SqsPutProductRequestHandler(new SynchronousAsyncProductStore(productStore));
+
+        try (LocalSqsEventSource eventSource = new LocalSqsEventSource(handler, 10, 50, 3, 1_000)) {
+            eventSource.start();
+            for (int i = 0; i < 50; i++) {
+                eventSource.send("{\"id\": \"" + (i % 5) + "\", \"name\": \"Product\", \"price\": " + i + "}");
+            }
+
+            assertTrue(eventSource.awaitEmpty(5, TimeUnit.SECONDS));
+            assertTrue(eventSource.getInvocations() <= 50);
+            assertTrue(eventSource.getDeadLetters().isEmpty());
+        }
+
+        assertEquals(5, productStore.size());
+        for (int id = 0; id < 5; id++) {
+            Product product = productStore.getProduct(String.valueOf(id)).orElseThrow();
+            assertEquals(new BigDecimal(45 + id).setScale(2), product.getPrice());
+        }
+    }
+
+    @Test
+    public void deadLettersMessagesThatKeepFailing() throws Exception {
+        InMemoryProductStore productStore = new InMemoryProductStore(Map.of(InMemoryProductStore.Operation.BATCH_PUT,
+                new InMemoryProductStore.Behaviour(0, 0, TimeUnit.MILLISECONDS, 1)));
+        SqsPutProductRequestHandler handler =
+                new SqsPutProductRequestHandler(new SynchronousAsyncProductStore(productStore));
+
+        try (LocalSqsEventSource eventSource = new LocalSqsEventSource(handler, 10, 50, 3, 1_000)) {
+            eventSource.start();
+            eventSource.send("{\"id\": \"1\", \"name\": \"Product\", \"price\": 1}");
+            String latest = eventSource.send("{\"id\": \"1\", \"name\": \"Product\", \"price\": 2}");
+            eventSource.send("not json");
+
+            assertTrue(eventSource.awaitEmpty(5, TimeUnit.SECONDS));
+            assertEquals(2, eventSource.getDeadLetters().size());
+            assertEquals(latest, eventSource.getDeadLetters().get(0).getMessageId());
+        }
+
+        assertEquals(0, productStore.size());
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.local;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuntimeApiEmulatorTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private RuntimeApiEmulator emulator;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        emulator = new RuntimeApiEmulator(new InetSocketAddress("127.0.0.1", 0), "test", 1_000,
+                Executors.newCachedThreadPool());
+        emulator.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emulator.close();
+    }
+
+    @Test
+    public void handsEventsToTheRuntimeAndRecordsResponses() throws Exception {
+        assertFalse(emulator.firstPoll().isDone());
+        CompletableFuture<RuntimeApiEmulator.Invocation> first = emulator.invoke("{\"n\": 1}");
+        CompletableFuture<RuntimeApiEmulator.Invocation> second = emulator.invoke("{\"n\": 2}");
+
+        HttpResponse<String> next = send("GET", "invocation/next", null, null);
+        assertTrue(emulator.firstPoll().isDone());
+        assertEquals(200, next.statusCode());
+        assertEquals("{\"n\": 1}", next.body());
+        assertEquals("arn:aws:lambda:local:000000000000:function:test",
+                next.headers().firstValue("Lambda-Runtime-Invoked-Function-Arn").orElseThrow());
+        String requestId = next.headers().firstValue("Lambda-Runtime-Aws-Request-Id").orElseThrow();
+
+        assertEquals(202, send("POST", "invocation/" + requestId + "/response", "{\"ok\": true}", null).statusCode());
+        RuntimeApiEmulator.Invocation invocation = first.get(1, TimeUnit.SECONDS);
+        assertEquals(requestId, invocation.getRequestId());
+        assertEquals("{\"ok\": true}", invocation.getResponse());
+        assertNull(invocation.getErrorType());
+        assertTrue(invocation.getLatencyNanos() >= invocation.getDurationNanos());
+
+        next = send("GET", "invocation/next", null, null);
+        assertEquals("{\"n\": 2}", next.body());
+        requestId = next.headers().firstValue("Lambda-Runtime-Aws-Request-Id").orElseThrow();
+        send("POST", "invocation/" + requestId + "/error", "{\"errorMessage\": \"boom\"}",
+                "Runtime.UnhandledException");
+        assertEquals("Runtime.UnhandledException", second.get(1, TimeUnit.SECONDS).getErrorType());
+    }
+
+    @Test
+    public void rejectsResponsesForUnknownRequests() throws Exception {
+        assertEquals(400, send("POST", "invocation/unknown/response", "{}", null).statusCode());
+    }
+
+    @Test
+    public void recordsInitErrors() throws Exception {
+        send("POST", "init/error", "{\"errorMessage\": \"no handler\"}", "Runtime.NoSuchHandler");
+        assertEquals("{\"errorMessage\": \"no handler\"}", emulator.initError().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void calculatesPercentiles() {
+        List<Long> values = List.of(5L, 1L, 4L, 2L, 3L, 10L, 9L, 8L, 7L, 6L);
+        assertEquals(5L, ColdStartDriver.percentile(values, 50));
+        assertEquals(10L, ColdStartDriver.percentile(values, 99));
+        assertEquals(1L, ColdStartDriver.percentile(values, 1));
+        assertEquals(0L, ColdStartDriver.percentile(List.of(), 50));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String errorType) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://" + emulator.getAddress() + "/2018-06-01/runtime/" + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (errorType != null) {
+            request.header("Lambda-Runtime-Function-Error-Type", errorType);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
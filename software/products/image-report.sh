@@ -0,0 +1,60 @@
+#!/bin/bash
+# Reports what product-binary is made of, from the files written by the native-image build:
+#   - the size of the image, its code and its heap, and how many types, methods and fields are reachable and how many
+#     of those are registered for reflection and JNI (target/native-image-build.json, written by every native build)
+#   - the packages with the most reachable methods (target/reports/call_tree_methods_*.csv, written by builds with the
+#     image-report profile)
+#   - the types this project registers for reflection, per metadata file, marking wholesale registrations
+#
+# Usage: ./image-report.sh
+#
+# Build the image first:
+#   ./mvnw -pl software/products package -Pnative-image,image-report
+
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+BUILD_OUTPUT=target/native-image-build.json
+MB='(. / 1048576 * 100 | round / 100 | tostring) + " MB"'
+
+if [ ! -f "$BUILD_OUTPUT" ]; then
+  echo "$BUILD_OUTPUT not found; build the image with -Pnative-image first" >&2
+  exit 1
+fi
+
+echo "== Image"
+jq -r ".image_details
+  | [\"total\", (.total_bytes | $MB)],
+    [\"code area\", (.code_area.bytes | $MB)],
+    [\"image heap\", (.image_heap.bytes | $MB)],
+    [\"  resources\", (.image_heap.resources.bytes // 0 | $MB)],
+    [\"debug info\", (.debug_info.bytes // 0 | $MB)]
+  | @tsv" "$BUILD_OUTPUT" | awk -F'\t' '{ printf "%-12s %12s\n", $1, $2 }'
+
+echo
+echo "== Analysis"
+printf '%-8s %10s %10s %10s\n' KIND REACHABLE REFLECTION JNI
+jq -r '.analysis_results
+  | to_entries[]
+  | select(.key == "types" or .key == "classes" or .key == "methods" or .key == "fields")
+  | [.key, .value.reachable, .value.reflection, .value.jni]
+  | @tsv' "$BUILD_OUTPUT" | awk -F'\t' '{ printf "%-8s %10d %10d %10d\n", $1, $2, $3, $4 }'
+
+CALL_TREE=$(ls -t target/reports/call_tree_methods_*.csv 2>/dev/null | head -1 || true)
+if [ -n "$CALL_TREE" ]; then
+  echo
+  echo "== Packages with the most reachable methods ($CALL_TREE)"
+  awk -F',' '
+    NR == 1 { for (i = 1; i <= NF; i++) if ($i == "Type") type = i; next }
+    { package = $type; sub(/\.[^.]*$/, "", package); methods[package]++ }
+    END { for (package in methods) printf "%8d %s\n", methods[package], package }' "$CALL_TREE" \
+  | sort -rn | head -25
+fi
+
+echo
+echo "== Reflection registrations in src/main/resources/META-INF/native-image"
+find src/main/resources/META-INF/native-image -name reflect-config.json | sort | while read -r file; do
+  printf '%4d %s\n' "$(jq length "$file")" "${file#src/main/resources/META-INF/native-image/}"
+  jq -r '.[] | select(to_entries | any(.key | startswith("all")) ) | "       wholesale: " + .name' "$file"
+done
@@ -0,0 +1,47 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+public class ApiGatewayBatchDeleteProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewayBatchDeleteProductRequestHandler.class);
+    private final AsyncProductStore productStore;
+
+    public ApiGatewayBatchDeleteProductRequestHandler() {
+        this(ProductStores.asyncProductStore());
+    }
+
+    public ApiGatewayBatchDeleteProductRequestHandler(AsyncProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        // Captured here because the response may be written on an SDK thread
+        InvocationMetrics metrics = InvocationMetrics.current();
+
+        return BatchRequests.handle(event, metrics, logger, "product IDs",
+                body -> ProductJsonCodec.readProductIds(body).getIds(),
+                ids -> {
+                    logger.info("Deleting {} product(s)", ids.size());
+                    return productStore.deleteProducts(ids).thenApply(unprocessedIds -> BatchRequests.written(
+                            unprocessedIds, 200, "Products deleted", "Some products were not deleted", metrics));
+                },
+                "Failed to delete products");
+    }
+}
@@ -0,0 +1,60 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.util.Map;
+
+import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.SERIALIZATION_TIME;
+
+public class ApiGatewayBatchGetProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewayBatchGetProductRequestHandler.class);
+    private final AsyncProductStore productStore;
+
+    public ApiGatewayBatchGetProductRequestHandler() {
+        this(ProductStores.asyncProductStore());
+    }
+
+    public ApiGatewayBatchGetProductRequestHandler(AsyncProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        // Captured here because the response may be written on an SDK thread
+        InvocationMetrics metrics = InvocationMetrics.current();
+
+        return BatchRequests.handle(event, metrics, logger, "product IDs",
+                body -> ProductJsonCodec.readProductIds(body).getIds(),
+                ids -> {
+                    logger.info("Fetching {} product(s)", ids.size());
+                    return productStore.getProducts(ids).thenApply(products -> toResponse(products, metrics));
+                },
+                "Failed to get products");
+    }
+
+    private APIGatewayV2HTTPResponse toResponse(Products products, InvocationMetrics metrics) {
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(200)
+                .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                .withBody(metrics.time(SERIALIZATION_TIME, () -> ProductJsonCodec.writeProducts(products)))
+                .build();
+    }
+}
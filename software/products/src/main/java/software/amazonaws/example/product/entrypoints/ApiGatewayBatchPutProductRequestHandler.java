@@ -0,0 +1,47 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+public class ApiGatewayBatchPutProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewayBatchPutProductRequestHandler.class);
+    private final AsyncProductStore productStore;
+
+    public ApiGatewayBatchPutProductRequestHandler() {
+        this(ProductStores.asyncProductStore());
+    }
+
+    public ApiGatewayBatchPutProductRequestHandler(AsyncProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        // Captured here because the response may be written on an SDK thread
+        InvocationMetrics metrics = InvocationMetrics.current();
+
+        return BatchRequests.handle(event, metrics, logger, "products",
+                body -> ProductJsonCodec.readProducts(body).getProducts(),
+                products -> {
+                    logger.info("Writing {} product(s)", products.size());
+                    return productStore.putProducts(products).thenApply(unprocessedIds -> BatchRequests.written(
+                            unprocessedIds, 201, "Products created", "Some products were not written", metrics));
+                },
+                "Failed to write products");
+    }
+}
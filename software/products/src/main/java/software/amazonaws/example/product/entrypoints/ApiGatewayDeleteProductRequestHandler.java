@@ -10,7 +10,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazonaws.example.product.store.ProductStore;
-import software.amazonaws.example.product.store.dynamodb.DynamoDbProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
 
 import java.util.Map;
 
@@ -19,10 +19,22 @@ import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
 public class ApiGatewayDeleteProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiGatewayDeleteProductRequestHandler.class);
-    private final ProductStore productStore = new DynamoDbProductStore();
+    private final ProductStore productStore;
+
+    public ApiGatewayDeleteProductRequestHandler() {
+        this(ProductStores.productStore());
+    }
+
+    public ApiGatewayDeleteProductRequestHandler(ProductStore productStore) {
+        this.productStore = productStore;
+    }
 
     @Override
     public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
         String id = event.getPathParameters().get("id");
         if (id == null) {
             logger.warn("Missing 'id' parameter in path");
@@ -35,6 +47,9 @@ public class ApiGatewayDeleteProductRequestHandler implements RequestHandler<API
 
         try {
             productStore.deleteProduct(id);
+        } catch (StoreUnavailableException e) {
+            logger.warn(e.getMessage());
+            return ServiceUnavailable.response(e);
         } catch (Exception e) {
             logger.error(e.getMessage());
             return APIGatewayV2HTTPResponse.builder()
@@ -7,26 +7,32 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductJsonCodec;
 import software.amazonaws.example.product.model.Products;
 import software.amazonaws.example.product.store.ProductStore;
-import software.amazonaws.example.product.store.dynamodb.DynamoDbProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
 
 import java.util.Map;
+import java.util.Set;
 
 import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.SERIALIZATION_TIME;
 
 public class ApiGatewayGetAllProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiGatewayGetAllProductRequestHandler.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final String INVALID_FIELDS_MESSAGE =
+            "{\"message\": \"'fields' must be a comma separated list of id, name, price and version\"}";
     private final ProductStore productStore;
 
     public ApiGatewayGetAllProductRequestHandler() {
-        this(new DynamoDbProductStore());
+        this(ProductStores.productStore());
     }
 
     public ApiGatewayGetAllProductRequestHandler(ProductStore productStore) {
@@ -35,29 +41,76 @@ public class ApiGatewayGetAllProductRequestHandler implements RequestHandler<API
 
     @Override
     public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
-        Products products;
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        Map<String, String> queryParameters = event.getQueryStringParameters() != null
+                ? event.getQueryStringParameters()
+                : Map.of();
+
+        int limit = DEFAULT_PAGE_SIZE;
+        String limitParameter = queryParameters.get("limit");
+        if (limitParameter != null) {
+            try {
+                limit = Integer.parseInt(limitParameter);
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                logger.warn("Invalid 'limit' query parameter: {}", limitParameter);
+                return APIGatewayV2HTTPResponse.builder()
+                        .withStatusCode(400)
+                        .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                        .withBody("{\"message\": \"'limit' must be an integer between 1 and " + MAX_PAGE_SIZE + "\"}")
+                        .build();
+            }
+        }
+
+        Set<ProductField> fields;
         try {
-            products = productStore.getAllProduct();
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
+            fields = ProductField.parse(queryParameters.get("fields"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid 'fields' query parameter: {}", e.getMessage());
             return APIGatewayV2HTTPResponse.builder()
-                    .withStatusCode(500)
+                    .withStatusCode(400)
                     .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
-                    .withBody("{\"message\": \"Failed to get products\"}")
+                    .withBody(INVALID_FIELDS_MESSAGE)
                     .build();
         }
 
+        Products products;
         try {
+            products = fields == ProductField.ALL
+                    ? productStore.getAllProduct(limit, queryParameters.get("cursor"))
+                    : productStore.getAllProduct(limit, queryParameters.get("cursor"), fields);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid 'cursor' query parameter: {}", e.getMessage());
             return APIGatewayV2HTTPResponse.builder()
-                    .withStatusCode(200)
+                    .withStatusCode(400)
                     .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
-                    .withBody(objectMapper.writeValueAsString(products))
+                    .withBody("{\"message\": \"Invalid 'cursor' query parameter\"}")
                     .build();
-        } catch (JsonProcessingException e) {
+        } catch (StoreUnavailableException e) {
+            logger.warn(e.getMessage());
+            return ServiceUnavailable.response(e);
+        } catch (Exception e) {
             logger.error(e.getMessage(), e);
             return APIGatewayV2HTTPResponse.builder()
                     .withStatusCode(500)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody("{\"message\": \"Failed to get products\"}")
                     .build();
         }
+
+        boolean cbor = MediaTypes.acceptsCbor(event.getHeaders());
+        return Compression.compress(event, APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(200)
+                .withHeaders(Map.of(CONTENT_TYPE, cbor ? MediaTypes.CBOR : MediaTypes.JSON, Headers.VARY, "Accept"))
+                .withBody(InvocationMetrics.current().time(SERIALIZATION_TIME, () -> cbor
+                        ? MediaTypes.base64(ProductJsonCodec.writeProductsCbor(products, fields))
+                        : ProductJsonCodec.writeProducts(products, fields)))
+                .withIsBase64Encoded(cbor)
+                .build());
     }
 }
@@ -7,27 +7,30 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazonaws.example.product.store.dynamodb.DynamoDbProductStore;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductJsonCodec;
 import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+import software.amazonaws.example.product.store.cache.CachingProductStore;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.SERIALIZATION_TIME;
 
 public class ApiGatewayGetProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiGatewayGetProductRequestHandler.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ProductStore productStore;
 
     public ApiGatewayGetProductRequestHandler() {
-        this(new DynamoDbProductStore());
+        this(CachingProductStore.fromEnvironment(ProductStores.productStore()));
     }
 
     public ApiGatewayGetProductRequestHandler(ProductStore productStore) {
@@ -36,6 +39,10 @@ public class ApiGatewayGetProductRequestHandler implements RequestHandler<APIGat
 
     @Override
     public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
         String id = event.getPathParameters().get("id");
         if (id == null) {
             logger.warn("Missing 'id' parameter in path");
@@ -46,9 +53,38 @@ public class ApiGatewayGetProductRequestHandler implements RequestHandler<APIGat
                     .build();
         }
 
+        Set<ProductField> fields;
+        try {
+            fields = ProductField.parse(event.getQueryStringParameters() == null
+                    ? null
+                    : event.getQueryStringParameters().get("fields"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid 'fields' query parameter: {}", e.getMessage());
+            return APIGatewayV2HTTPResponse.builder()
+                    .withStatusCode(400)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody(ApiGatewayGetAllProductRequestHandler.INVALID_FIELDS_MESSAGE)
+                    .build();
+        }
+
         logger.info("Fetching product {}", id);
 
-        Optional<Product> product = productStore.getProduct(id);
+        Optional<Product> product;
+        try {
+            product = fields == ProductField.ALL
+                    ? productStore.getProduct(id)
+                    : productStore.getProduct(id, fields);
+        } catch (StoreUnavailableException e) {
+            logger.warn(e.getMessage());
+            return ServiceUnavailable.response(e);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            return APIGatewayV2HTTPResponse.builder()
+                    .withStatusCode(500)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody("{\"message\": \"Failed to get product\"}")
+                    .build();
+        }
         if (product.isEmpty()) {
             logger.warn("No product with id: {}", id);
             return APIGatewayV2HTTPResponse.builder()
@@ -57,18 +93,27 @@ public class ApiGatewayGetProductRequestHandler implements RequestHandler<APIGat
                     .build();
         }
 
-        logger.info(product.toString());
+        logger.debug("Found {}", product.get());
 
-        try {
+        boolean cbor = MediaTypes.acceptsCbor(event.getHeaders());
+        String body = InvocationMetrics.current().time(SERIALIZATION_TIME, () -> cbor
+                ? MediaTypes.base64(ProductJsonCodec.writeProductCbor(product.get(), fields))
+                : ProductJsonCodec.writeProduct(product.get(), fields));
+        // Each representation gets its own tag, a CBOR response must not validate a cached JSON one
+        String etag = ETags.of(body);
+        if (ETags.matches(ETags.ifNoneMatch(event.getHeaders()), etag)) {
             return APIGatewayV2HTTPResponse.builder()
-                    .withStatusCode(200)
-                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
-                    .withBody(objectMapper.writeValueAsString(product.get()))
-                    .build();
-        } catch (JsonProcessingException e) {
-            return APIGatewayV2HTTPResponse.builder()
-                    .withStatusCode(500)
+                    .withStatusCode(304)
+                    .withHeaders(Map.of(ETags.ETAG, etag, Headers.VARY, "Accept"))
                     .build();
         }
+
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(200)
+                .withHeaders(Map.of(CONTENT_TYPE, cbor ? MediaTypes.CBOR : MediaTypes.JSON, ETags.ETAG, etag,
+                        Headers.VARY, "Accept"))
+                .withBody(body)
+                .withIsBase64Encoded(cbor)
+                .build();
     }
 }
@@ -0,0 +1,78 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.cache.CachingProductStore;
+
+import java.util.Map;
+import java.util.Set;
+
+import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+
+/**
+ * Serves every product route from a single function, so that all routes share one warm container, one DynamoDB
+ * client and connection pool, and one product cache. Batch writes go through the asynchronous store, which invalidates
+ * the cache for the products they write.
+ * <p>
+ * Requests are dispatched on the API Gateway route key, which must match one of the routes below.
+ */
+public class ApiGatewayProductRouterHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewayProductRouterHandler.class);
+
+    private final Map<String, RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse>> routes;
+
+    public ApiGatewayProductRouterHandler() {
+        this(CachingProductStore.fromEnvironment(ProductStores.productStore()), ProductStores.asyncProductStore());
+    }
+
+    public ApiGatewayProductRouterHandler(ProductStore productStore, AsyncProductStore asyncProductStore) {
+        if (productStore instanceof CachingProductStore cache) {
+            asyncProductStore = cache.invalidating(asyncProductStore);
+        }
+        this.routes = Map.of(
+                "GET /", new ApiGatewayGetAllProductRequestHandler(productStore),
+                "GET /search", new ApiGatewaySearchProductsRequestHandler(productStore),
+                "GET /{id}", new ApiGatewayGetProductRequestHandler(productStore),
+                "PUT /{id}", new ApiGatewayPutProductRequestHandler(productStore),
+                "DELETE /{id}", new ApiGatewayDeleteProductRequestHandler(productStore),
+                "POST /batch/get", new ApiGatewayBatchGetProductRequestHandler(asyncProductStore),
+                "POST /batch/put", new ApiGatewayBatchPutProductRequestHandler(asyncProductStore),
+                "POST /batch/delete", new ApiGatewayBatchDeleteProductRequestHandler(asyncProductStore));
+    }
+
+    /**
+     * @return the route keys this handler serves, e.g. {@code "GET /{id}"}
+     */
+    public Set<String> getRouteKeys() {
+        return routes.keySet();
+    }
+
+    @Override
+    public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> handler = routes.get(event.getRouteKey());
+        if (handler == null) {
+            logger.warn("No handler for route {}", event.getRouteKey());
+            return APIGatewayV2HTTPResponse.builder()
+                    .withStatusCode(404)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody("{\"message\": \"Route not found\"}")
+                    .build();
+        }
+
+        return handler.handleRequest(event, context);
+    }
+}
@@ -7,26 +7,30 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
 import software.amazonaws.example.product.store.ProductStore;
-import software.amazonaws.example.product.store.dynamodb.DynamoDbProductStore;
+import software.amazonaws.example.product.store.ProductVersionConflictException;
+import software.amazonaws.example.product.store.StoreUnavailableException;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 
 import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.DESERIALIZATION_TIME;
 
 public class ApiGatewayPutProductRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiGatewayPutProductRequestHandler.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ProductStore productStore;
 
     public ApiGatewayPutProductRequestHandler() {
-        this(new DynamoDbProductStore());
+        this(ProductStores.productStore());
     }
 
     public ApiGatewayPutProductRequestHandler(ProductStore productStore) {
@@ -35,7 +39,11 @@ public class ApiGatewayPutProductRequestHandler implements RequestHandler<APIGat
 
     @Override
     public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
-        logger.info("Event body: " + event.getBody());
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        logger.debug("Event body: {}", event.getBody());
 
         String id = event.getPathParameters().get("id");
         if (id == null) {
@@ -56,8 +64,8 @@ public class ApiGatewayPutProductRequestHandler implements RequestHandler<APIGat
 
         Product product;
         try {
-            product = objectMapper.readValue(event.getBody(), Product.class);
-        } catch (IOException e) {
+            product = InvocationMetrics.current().time(DESERIALIZATION_TIME, () -> readProduct(event));
+        } catch (IOException | IllegalArgumentException e) {
             logger.error(e.getMessage());
             return APIGatewayV2HTTPResponse.builder()
                     .withBody("{\"message\": \"Failed to parse product from request body\"}")
@@ -73,10 +81,20 @@ public class ApiGatewayPutProductRequestHandler implements RequestHandler<APIGat
                     .build();
         }
 
-        logger.info("Parsed: " + product);
+        logger.debug("Parsed: {}", product);
 
         try {
             productStore.putProduct(product);
+        } catch (ProductVersionConflictException e) {
+            logger.warn(e.getMessage());
+            return APIGatewayV2HTTPResponse.builder()
+                    .withStatusCode(409)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody("{\"message\": \"Product has been modified, fetch it and try again\"}")
+                    .build();
+        } catch (StoreUnavailableException e) {
+            logger.warn(e.getMessage());
+            return ServiceUnavailable.response(e);
         } catch (Exception e) {
             logger.error(e.getMessage());
             return APIGatewayV2HTTPResponse.builder()
@@ -90,4 +108,14 @@ public class ApiGatewayPutProductRequestHandler implements RequestHandler<APIGat
                 .withBody("{\"message\": \"Product created\"}")
                 .build();
     }
+
+    private static Product readProduct(APIGatewayV2HTTPEvent event) throws IOException {
+        if (MediaTypes.isCbor(event.getHeaders())) {
+            // API Gateway always base64 encodes binary bodies
+            return ProductJsonCodec.readProductCbor(Base64.getDecoder().decode(event.getBody()));
+        }
+        return ProductJsonCodec.readProduct(event.getIsBase64Encoded()
+                ? new String(Base64.getDecoder().decode(event.getBody()), StandardCharsets.UTF_8)
+                : event.getBody());
+    }
 }
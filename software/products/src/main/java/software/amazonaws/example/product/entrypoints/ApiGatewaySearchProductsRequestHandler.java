@@ -0,0 +1,133 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.SERIALIZATION_TIME;
+import static software.amazonaws.example.product.entrypoints.ApiGatewayGetAllProductRequestHandler.DEFAULT_PAGE_SIZE;
+import static software.amazonaws.example.product.entrypoints.ApiGatewayGetAllProductRequestHandler.INVALID_FIELDS_MESSAGE;
+import static software.amazonaws.example.product.entrypoints.ApiGatewayGetAllProductRequestHandler.MAX_PAGE_SIZE;
+
+/**
+ * Handles {@code GET /search?minPrice=&maxPrice=&namePrefix=}, returning the matching products a page at a time like
+ * {@code GET /}. At least one criterion is required, so that a search never turns into reading the whole table.
+ */
+public class ApiGatewaySearchProductsRequestHandler implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGatewaySearchProductsRequestHandler.class);
+    private final ProductStore productStore;
+
+    public ApiGatewaySearchProductsRequestHandler() {
+        this(ProductStores.productStore());
+    }
+
+    public ApiGatewaySearchProductsRequestHandler(ProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, Context context) {
+        Map<String, String> queryParameters = event.getQueryStringParameters() != null
+                ? event.getQueryStringParameters()
+                : Map.of();
+
+        ProductQuery query;
+        try {
+            query = new ProductQuery(price(queryParameters.get("minPrice")), price(queryParameters.get("maxPrice")),
+                    queryParameters.get("namePrefix"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search query parameters: {}", e.getMessage());
+            return badRequest("{\"message\": \"'minPrice' and 'maxPrice' must be numbers with minPrice <= maxPrice, "
+                    + "and 'namePrefix' must not be empty\"}");
+        }
+        if (query.getMinPrice() == null && query.getMaxPrice() == null && query.getNamePrefix() == null) {
+            return badRequest("{\"message\": \"At least one of 'minPrice', 'maxPrice' and 'namePrefix' is required\"}");
+        }
+
+        int limit = DEFAULT_PAGE_SIZE;
+        String limitParameter = queryParameters.get("limit");
+        if (limitParameter != null) {
+            try {
+                limit = Integer.parseInt(limitParameter);
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                logger.warn("Invalid 'limit' query parameter: {}", limitParameter);
+                return badRequest("{\"message\": \"'limit' must be an integer between 1 and " + MAX_PAGE_SIZE + "\"}");
+            }
+        }
+
+        Set<ProductField> fields;
+        try {
+            fields = ProductField.parse(queryParameters.get("fields"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid 'fields' query parameter: {}", e.getMessage());
+            return badRequest(INVALID_FIELDS_MESSAGE);
+        }
+
+        Products products;
+        try {
+            products = productStore.searchProducts(query, limit, queryParameters.get("cursor"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid 'cursor' query parameter: {}", e.getMessage());
+            return badRequest("{\"message\": \"Invalid 'cursor' query parameter\"}");
+        } catch (StoreUnavailableException e) {
+            logger.warn(e.getMessage());
+            return ServiceUnavailable.response(e);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            return APIGatewayV2HTTPResponse.builder()
+                    .withStatusCode(500)
+                    .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                    .withBody("{\"message\": \"Failed to search products\"}")
+                    .build();
+        }
+
+        boolean cbor = MediaTypes.acceptsCbor(event.getHeaders());
+        return Compression.compress(event, APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(200)
+                .withHeaders(Map.of(CONTENT_TYPE, cbor ? MediaTypes.CBOR : MediaTypes.JSON, Headers.VARY, "Accept"))
+                .withBody(InvocationMetrics.current().time(SERIALIZATION_TIME, () -> cbor
+                        ? MediaTypes.base64(ProductJsonCodec.writeProductsCbor(products, fields))
+                        : ProductJsonCodec.writeProducts(products, fields)))
+                .withIsBase64Encoded(cbor)
+                .build());
+    }
+
+    private static BigDecimal price(String parameter) {
+        // NumberFormatException is an IllegalArgumentException
+        return parameter == null ? null : new BigDecimal(parameter);
+    }
+
+    private static APIGatewayV2HTTPResponse badRequest(String body) {
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(400)
+                .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                .withBody(body)
+                .build();
+    }
+}
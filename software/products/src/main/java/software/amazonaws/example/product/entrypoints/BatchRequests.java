@@ -0,0 +1,101 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.slf4j.Logger;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.BatchWriteResult;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.DESERIALIZATION_TIME;
+import static software.amazonaws.example.product.metrics.InvocationMetrics.SERIALIZATION_TIME;
+
+/**
+ * What the batch handlers have in common: read the items from the request body, check that there are between 1 and
+ * {@link #MAX_SIZE} of them, make the store call and answer store failures with 503 or 500. Every response is JSON.
+ */
+final class BatchRequests {
+
+    static final int MAX_SIZE = 500;
+
+    private BatchRequests() {
+    }
+
+    @FunctionalInterface
+    interface Reader<T> {
+        List<T> read(String body) throws IOException;
+    }
+
+    /**
+     * @param items what the request body holds, e.g. {@code products}, for the 400 messages
+     * @param call makes the store call for the items and turns its result into the response
+     * @param failureMessage the message of the 500 response if the call fails
+     */
+    static <T> APIGatewayV2HTTPResponse handle(APIGatewayV2HTTPEvent event, InvocationMetrics metrics, Logger logger,
+                                               String items, Reader<T> reader,
+                                               Function<List<T>, CompletableFuture<APIGatewayV2HTTPResponse>> call,
+                                               String failureMessage) {
+        if (event.getBody() == null || event.getBody().isEmpty()) {
+            return response(400, "Empty request body");
+        }
+
+        List<T> batch;
+        try {
+            batch = metrics.time(DESERIALIZATION_TIME, () -> reader.read(event.getBody()));
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+            return response(400, "Failed to parse " + items + " from request body");
+        }
+
+        if (batch == null || batch.isEmpty() || batch.size() > MAX_SIZE || batch.contains(null)) {
+            return response(400, "Between 1 and " + MAX_SIZE + " " + items + " are required");
+        }
+
+        return call.apply(batch)
+                .exceptionally(e -> {
+                    StoreUnavailableException unavailable = ServiceUnavailable.cause(e);
+                    if (unavailable != null) {
+                        logger.warn(unavailable.getMessage());
+                        return ServiceUnavailable.response(unavailable);
+                    }
+                    logger.error(e.getMessage(), e);
+                    return response(500, failureMessage);
+                })
+                .join();
+    }
+
+    /**
+     * Answers a batch write with {@code status} if every item was written, or with 207 and the IDs of those that were
+     * not.
+     */
+    static APIGatewayV2HTTPResponse written(List<String> unprocessedIds, int status, String message,
+                                            String partialMessage, InvocationMetrics metrics) {
+        BatchWriteResult result = new BatchWriteResult(unprocessedIds.isEmpty() ? message : partialMessage,
+                unprocessedIds);
+
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(unprocessedIds.isEmpty() ? status : 207)
+                .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                .withBody(metrics.time(SERIALIZATION_TIME, () -> ProductJsonCodec.writeBatchWriteResult(result)))
+                .build();
+    }
+
+    private static APIGatewayV2HTTPResponse response(int status, String message) {
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(status)
+                .withHeaders(Map.of(CONTENT_TYPE, "application/json"))
+                .withBody("{\"message\": \"" + message + "\"}")
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with the encoding the client prefers in its {@code Accept-Encoding} header, gzip or
+ * deflate. Compressed bodies are binary, so they are returned base64 encoded and API Gateway decodes them.
+ * <p>
+ * Bodies under {@link #MIN_SIZE} bytes are left alone: a single product or a short page gains little, and the
+ * compressor setup and base64 expansion would cost more than they save.
+ */
+final class Compression {
+
+    static final int MIN_SIZE = 1024;
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private Compression() {
+    }
+
+    /**
+     * @return the response with its body compressed, if it is large enough and the client accepts gzip or deflate,
+     * otherwise the response as it is. Either way {@code Accept-Encoding} is added to the {@code Vary} header.
+     */
+    static APIGatewayV2HTTPResponse compress(APIGatewayV2HTTPEvent event, APIGatewayV2HTTPResponse response) {
+        Map<String, String> headers = new HashMap<>(response.getHeaders() != null ? response.getHeaders() : Map.of());
+        headers.merge(Headers.VARY, "Accept-Encoding", (vary, value) -> vary + ", " + value);
+        response.setHeaders(headers);
+
+        String body = response.getBody();
+        if (body == null || response.getIsBase64Encoded() || body.length() < MIN_SIZE) {
+            return response;
+        }
+        byte[] uncompressed = body.getBytes(StandardCharsets.UTF_8);
+        if (uncompressed.length < MIN_SIZE) {
+            return response;
+        }
+        String encoding = negotiate(Headers.get(event.getHeaders(), "accept-encoding"));
+        if (encoding == null) {
+            return response;
+        }
+
+        byte[] compressed = encode(uncompressed, encoding);
+        if (compressed.length >= uncompressed.length) {
+            return response;
+        }
+        headers.put("Content-Encoding", encoding);
+        response.setBody(Base64.getEncoder().encodeToString(compressed));
+        response.setIsBase64Encoded(true);
+        return response;
+    }
+
+    /**
+     * Picks the supported encoding with the highest quality value, preferring gzip on a tie.
+     *
+     * @return {@value #GZIP}, {@value #DEFLATE}, or {@code null} to send the body uncompressed
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = Headers.quality(parts);
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, quality);
+                case DEFLATE -> deflate = Math.max(deflate, quality);
+                case "*" -> wildcard = Math.max(wildcard, quality);
+                default -> {
+                }
+            }
+        }
+        // A wildcard covers the codings that are not listed by name
+        if (gzip < 0) {
+            gzip = wildcard;
+        }
+        if (deflate < 0) {
+            deflate = wildcard;
+        }
+
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static byte[] encode(byte[] body, String encoding) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        // HTTP "deflate" is the zlib format, which is what DeflaterOutputStream writes
+        try (OutputStream out = GZIP.equals(encoding)
+                ? new GZIPOutputStream(compressed, 8192)
+                : new DeflaterOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress response", e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Entity tags for response bodies. A tag is derived from the body itself rather than from the product's version, so it
+ * also covers products without a version and cached responses.
+ */
+final class ETags {
+
+    static final String ETAG = "ETag";
+
+    private ETags() {
+    }
+
+    static String of(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to tell versions of one product apart
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16))
+                    + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+
+    /**
+     * @return the {@code If-None-Match} request header, which API Gateway passes on in lower case
+     */
+    static String ifNoneMatch(Map<String, String> headers) {
+        return Headers.get(headers, "if-none-match");
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header with the weak comparison RFC 9110 requires for it.
+     *
+     * @return {@code true} if the header lists the tag or is {@code *}
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
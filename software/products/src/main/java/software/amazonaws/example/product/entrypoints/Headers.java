@@ -0,0 +1,58 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import java.util.Map;
+
+/**
+ * Request header lookup. HTTP header names are case-insensitive; API Gateway passes them on in lower case, but events
+ * built by hand or by other tools may not.
+ */
+final class Headers {
+
+    static final String VARY = "Vary";
+
+    private Headers() {
+    }
+
+    /**
+     * @param name the header name in lower case
+     * @return the header's value, or {@code null} if the request does not have it
+     */
+    static String get(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the quality value of an element of a list header such as {@code Accept}, split on {@code ;} into the
+     * value and its parameters.
+     *
+     * @return the {@code q} parameter, {@code 1} if there is none, or {@code 0} if it is invalid
+     */
+    static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,43 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazonaws.example.product.logging.JsonLogging;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.store.resilience.Deadline;
+
+import java.util.function.Supplier;
+
+/**
+ * What every handler does around an invocation: bind its metrics and store deadline to the handler's thread, then
+ * write out metrics and logs before the response is returned and Lambda may freeze the execution environment. Runs
+ * nested in another, i.e. the router's routes, are part of the outer invocation, which does the writing.
+ */
+final class Invocations {
+
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<>();
+
+    private Invocations() {
+    }
+
+    static <T> T run(Context context, Supplier<T> handler) {
+        boolean outermost = RUNNING.get() == null;
+        if (outermost) {
+            RUNNING.set(Boolean.TRUE);
+        }
+        InvocationMetrics metrics = InvocationMetrics.begin(context);
+        Deadline.begin(context == null ? 0 : context.getRemainingTimeInMillis());
+        try {
+            return handler.get();
+        } finally {
+            Deadline.end();
+            metrics.end();
+            if (outermost) {
+                RUNNING.remove();
+                JsonLogging.afterInvocation();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import software.amazonaws.example.product.model.ProductJsonCodec;
+
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Content negotiation between JSON, the default, and CBOR for service-to-service callers. CBOR bodies are binary, so
+ * they travel base64 encoded through API Gateway in both directions.
+ */
+final class MediaTypes {
+
+    static final String JSON = "application/json";
+    static final String CBOR = ProductJsonCodec.CBOR_CONTENT_TYPE;
+
+    private MediaTypes() {
+    }
+
+    /**
+     * @return {@code true} if the request's {@code Accept} header prefers CBOR over JSON. CBOR has to be named
+     * explicitly; wildcards only ever select JSON.
+     */
+    static boolean acceptsCbor(Map<String, String> headers) {
+        String accept = Headers.get(headers, "accept");
+        if (accept == null) {
+            return false;
+        }
+
+        double cbor = 0;
+        double json = 0;
+        for (String element : accept.split(",")) {
+            String[] parts = element.split(";");
+            String type = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = Headers.quality(parts);
+            switch (type) {
+                case CBOR -> cbor = Math.max(cbor, quality);
+                case JSON, "application/*", "*/*" -> json = Math.max(json, quality);
+                default -> {
+                }
+            }
+        }
+        return cbor > 0 && cbor >= json;
+    }
+
+    /**
+     * @return {@code true} if the request body is CBOR according to its {@code Content-Type} header
+     */
+    static boolean isCbor(Map<String, String> headers) {
+        String contentType = Headers.get(headers, "content-type");
+        return contentType != null
+                && contentType.split(";")[0].trim().toLowerCase(Locale.ROOT).equals(CBOR);
+    }
+
+    static String base64(byte[] body) {
+        return Base64.getEncoder().encodeToString(body);
+    }
+}
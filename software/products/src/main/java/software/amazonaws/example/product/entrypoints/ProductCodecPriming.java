@@ -0,0 +1,55 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.model.Products;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads and writes products in every format the handlers use before a SnapStart or CRaC checkpoint, so that Jackson
+ * and {@link ProductJsonCodec} are loaded and initialized in the snapshot instead of on the first request after each
+ * restore. The native image initializes them at build time, see
+ * {@link software.amazonaws.example.product.nativeimage.ProductsFeature}, and registering does nothing there.
+ */
+final class ProductCodecPriming implements Resource {
+
+    // CRaC only keeps weak references to registered resources
+    private static ProductCodecPriming registered;
+
+    static synchronized void register() {
+        if (registered == null) {
+            registered = new ProductCodecPriming();
+            Core.getGlobalContext().register(registered);
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws IOException {
+        Product product = new Product("00000000", "Priming", new BigDecimal("13.34"), 1L);
+        Products products = new Products(List.of(product));
+        Set<ProductField> fields = Set.of(ProductField.ID, ProductField.NAME);
+
+        ProductJsonCodec.readProduct(ProductJsonCodec.writeProduct(product));
+        ProductJsonCodec.readProductCbor(ProductJsonCodec.writeProductCbor(product, ProductField.ALL));
+        ProductJsonCodec.writeProduct(product, fields);
+        ProductJsonCodec.readProducts(ProductJsonCodec.writeProducts(products));
+        ProductJsonCodec.writeProducts(new Products(List.of(product), "cursor"), fields);
+        ProductJsonCodec.writeProductsCbor(products, ProductField.ALL);
+        ProductJsonCodec.readProductIds("{\"ids\": [\"00000000\"]}");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+}
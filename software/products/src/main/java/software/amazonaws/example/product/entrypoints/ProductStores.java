@@ -0,0 +1,76 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.BlockingProductStore;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.SynchronousAsyncProductStore;
+import software.amazonaws.example.product.store.dynamodb.DynamoDbAsyncProductStore;
+import software.amazonaws.example.product.store.dynamodb.DynamoDbPriming;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+import software.amazonaws.example.product.store.metrics.MeteredAsyncProductStore;
+import software.amazonaws.example.product.store.metrics.MeteredProductStore;
+import software.amazonaws.example.product.store.resilience.ResilientAsyncProductStore;
+
+/**
+ * Chooses the store behind the handlers' default constructors.
+ * <p>
+ * DynamoDB is used unless {@code PRODUCT_STORE} is {@code memory}, in which case every handler in the process shares
+ * one {@link InMemoryProductStore}, configured as described there. That lets the functions be started and measured
+ * locally, e.g. under the Runtime API emulator, without any AWS resources. DynamoDB is called through one
+ * {@link ResilientAsyncProductStore} per process, so that every handler shares its retry budget and circuit breaker.
+ * The connection to DynamoDB is opened while the store is created during init, unless {@code DYNAMODB_WARM_UP} is
+ * {@code false}, see {@link DynamoDbAsyncProductStore#warmUp(long)}.
+ * <p>
+ * Either way the store is metered, see {@link MeteredProductStore}. Handlers that cache wrap the metered store, so
+ * that store time only counts calls that miss the cache.
+ * <p>
+ * Handlers created through here are primed for a SnapStart or CRaC checkpoint, see {@link ProductCodecPriming} and
+ * {@link DynamoDbPriming}.
+ */
+final class ProductStores {
+
+    private static final String PRODUCT_STORE_VARIABLE = "PRODUCT_STORE";
+    private static final String WARM_UP_VARIABLE = "DYNAMODB_WARM_UP";
+    private static final long WARM_UP_TIMEOUT_MILLIS = 2000;
+
+    static {
+        ProductCodecPriming.register();
+    }
+
+    private ProductStores() {
+    }
+
+    static ProductStore productStore() {
+        return new MeteredProductStore(inMemory() ? InMemory.STORE : new BlockingProductStore(DynamoDb.STORE));
+    }
+
+    static AsyncProductStore asyncProductStore() {
+        return new MeteredAsyncProductStore(inMemory()
+                ? new SynchronousAsyncProductStore(InMemory.STORE)
+                : DynamoDb.STORE);
+    }
+
+    private static boolean inMemory() {
+        return "memory".equalsIgnoreCase(System.getenv(PRODUCT_STORE_VARIABLE));
+    }
+
+    private static final class InMemory {
+        private static final InMemoryProductStore STORE = InMemoryProductStore.fromEnvironment();
+    }
+
+    private static final class DynamoDb {
+        private static final AsyncProductStore STORE = create();
+
+        private static AsyncProductStore create() {
+            DynamoDbAsyncProductStore store = new DynamoDbAsyncProductStore();
+            if (!"false".equalsIgnoreCase(System.getenv(WARM_UP_VARIABLE))) {
+                store.warmUp(WARM_UP_TIMEOUT_MILLIS);
+            }
+            DynamoDbPriming.register(store);
+            return ResilientAsyncProductStore.fromEnvironment(store);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.util.Map;
+
+import static software.amazon.awssdk.http.Header.CONTENT_TYPE;
+
+/**
+ * Answers requests that failed because the store is throttled, failing or out of time with 503 and a
+ * {@code Retry-After} header, so that clients back off instead of retrying straight away.
+ */
+final class ServiceUnavailable {
+
+    private ServiceUnavailable() {
+    }
+
+    /**
+     * @return the {@link StoreUnavailableException} that caused {@code failure}, or {@code null} if there is none
+     */
+    static StoreUnavailableException cause(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StoreUnavailableException storeUnavailable) {
+                return storeUnavailable;
+            }
+        }
+        return null;
+    }
+
+    static APIGatewayV2HTTPResponse response(StoreUnavailableException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(503)
+                .withHeaders(Map.of(CONTENT_TYPE, "application/json", "Retry-After", Long.toString(retryAfterSeconds)))
+                .withBody("{\"message\": \"Service temporarily unavailable, try again later\"}")
+                .build();
+    }
+}
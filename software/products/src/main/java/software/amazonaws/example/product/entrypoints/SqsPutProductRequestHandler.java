@@ -0,0 +1,129 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asynchronous counterpart of {@link ApiGatewayPutProductRequestHandler}: each SQS message carries one product, in the
+ * same JSON as the body of {@code PUT /{id}}.
+ * <p>
+ * Upstream jobs often write the same product several times in quick succession. Within a batch only the most recent
+ * write for each ID is kept, ordered by the {@code SentTimestamp} attribute and then by position in the batch, and the
+ * remaining products are written with {@code putProducts}. The response lists the messages whose product could not be
+ * parsed or written, so that only those are retried. Superseded messages are never reported: the write that replaced
+ * them is retried in their place.
+ */
+public class SqsPutProductRequestHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsPutProductRequestHandler.class);
+    private static final String SENT_TIMESTAMP = "SentTimestamp";
+    private final AsyncProductStore productStore;
+
+    public SqsPutProductRequestHandler() {
+        this(ProductStores.asyncProductStore());
+    }
+
+    public SqsPutProductRequestHandler(AsyncProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        return Invocations.run(context, () -> handle(event, context));
+    }
+
+    private SQSBatchResponse handle(SQSEvent event, Context context) {
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        if (event.getRecords() == null || event.getRecords().isEmpty()) {
+            return new SQSBatchResponse(failures);
+        }
+
+        Map<String, Write> latestById = new LinkedHashMap<>();
+        for (SQSEvent.SQSMessage message : event.getRecords()) {
+            Product product;
+            try {
+                product = InvocationMetrics.current().time(InvocationMetrics.DESERIALIZATION_TIME,
+                        () -> ProductJsonCodec.readProduct(message.getBody() == null ? "" : message.getBody()));
+            } catch (IOException e) {
+                logger.error("Failed to parse product from message {}: {}", message.getMessageId(), e.getMessage());
+                failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
+                continue;
+            }
+
+            Write write = new Write(message.getMessageId(), sentTimestamp(message), product);
+            latestById.merge(product.getId(), write, (current, next) -> next.sentAt >= current.sentAt ? next : current);
+        }
+
+        if (latestById.isEmpty()) {
+            return new SQSBatchResponse(failures);
+        }
+
+        int received = event.getRecords().size() - failures.size();
+        logger.info("Writing {} product(s) from {} message(s)", latestById.size(), received);
+
+        List<Product> products = new ArrayList<>(latestById.size());
+        Map<String, String> messageIdsByProductId = new HashMap<>();
+        for (Write write : latestById.values()) {
+            products.add(write.product);
+            messageIdsByProductId.put(write.product.getId(), write.messageId);
+        }
+
+        List<String> unprocessedIds;
+        try {
+            unprocessedIds = productStore.putProducts(products).join();
+        } catch (RuntimeException e) {
+            logger.error(e.getMessage(), e);
+            unprocessedIds = new ArrayList<>(messageIdsByProductId.keySet());
+        }
+
+        for (String id : unprocessedIds) {
+            failures.add(new SQSBatchResponse.BatchItemFailure(messageIdsByProductId.get(id)));
+        }
+        if (!failures.isEmpty()) {
+            logger.warn("{} message(s) will be retried", failures.size());
+        }
+        return new SQSBatchResponse(failures);
+    }
+
+    private static long sentTimestamp(SQSEvent.SQSMessage message) {
+        String sentTimestamp = message.getAttributes() == null ? null : message.getAttributes().get(SENT_TIMESTAMP);
+        if (sentTimestamp == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(sentTimestamp);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Write {
+        private final String messageId;
+        private final long sentAt;
+        private final Product product;
+
+        Write(String messageId, long sentAt, Product product) {
+            this.messageId = messageId;
+            this.sentAt = sentAt;
+            this.product = product;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes log events as one JSON object per line, which CloudWatch Logs Insights parses into fields without a parse
+ * pattern:
+ * <pre>
+ * {"timestamp":"2024-05-01T12:00:00.123Z","level":"INFO","logger":"ApiGatewayGetProductRequestHandler","message":"..."}
+ * </pre>
+ * In asynchronous mode events are queued and formatted and written by a background thread, so a request only pays for
+ * capturing the event. Lambda freezes the execution environment as soon as the handler returns, so
+ * {@link #flush(long)} has to be called before returning for the events to reach CloudWatch in time; see
+ * {@link JsonLogging#afterInvocation()}. When the queue is full, the calling thread writes the event itself rather
+ * than dropping it.
+ */
+public final class AsyncJsonAppender {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final OutputStream out;
+    private final boolean async;
+    private final BlockingQueue<LogEvent> queue;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private final Object progress = new Object();
+    private long enqueued;
+    private long written;
+    private Thread writer;
+
+    /**
+     * @param async    {@code false} to write each event on the calling thread
+     * @param capacity maximum number of events waiting to be written
+     */
+    public AsyncJsonAppender(OutputStream out, boolean async, int capacity) {
+        this.out = out;
+        this.async = async;
+        this.queue = async ? new ArrayBlockingQueue<>(capacity) : null;
+    }
+
+    void append(LogEvent event) {
+        if (!async) {
+            write(List.of(event));
+            return;
+        }
+
+        synchronized (progress) {
+            if (writer == null) {
+                // Started on first use rather than on construction, so that no thread exists at image build time
+                writer = new Thread(this::run, "json-log-writer");
+                writer.setDaemon(true);
+                writer.start();
+            }
+            if (queue.offer(event)) {
+                enqueued++;
+                return;
+            }
+        }
+        write(List.of(event));
+    }
+
+    /**
+     * Waits until every event appended so far has been written, or the timeout elapses.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean flush(long timeoutMillis) {
+        if (!async) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (progress) {
+            long target = enqueued;
+            while (written < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void run() {
+        List<LogEvent> batch = new ArrayList<>(64);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                write(batch);
+                synchronized (progress) {
+                    written += batch.size();
+                    progress.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<LogEvent> events) {
+        // Serializes the writer thread with callers writing themselves because the queue is full
+        synchronized (buffer) {
+            buffer.reset();
+            try {
+                for (LogEvent event : events) {
+                    format(event);
+                    buffer.write('\n');
+                }
+                buffer.writeTo(out);
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                // Logging must never fail a request; report the problem on stderr and carry on
+                System.err.println("Failed to write log events: " + e);
+            }
+        }
+    }
+
+    private void format(LogEvent event) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", Instant.ofEpochMilli(event.timestampMillis).toString());
+            generator.writeStringField("level", event.level.name());
+            generator.writeStringField("logger", shortName(event.loggerName));
+            generator.writeStringField("message", event.message());
+            if (event.context != null) {
+                for (Map.Entry<String, String> entry : event.context.entrySet()) {
+                    generator.writeStringField(entry.getKey(), entry.getValue());
+                }
+            }
+            if (event.throwable != null) {
+                StringWriter stackTrace = new StringWriter();
+                event.throwable.printStackTrace(new PrintWriter(stackTrace));
+                generator.writeStringField("exception", stackTrace.toString());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static String shortName(String loggerName) {
+        return loggerName.substring(loggerName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+
+import java.util.Map;
+
+/**
+ * Hands logging calls to the {@link AsyncJsonAppender} without formatting them. Disabled levels return before any
+ * work is done; debug is also enabled for invocations picked by debug sampling.
+ */
+final class JsonLogger extends LegacyAbstractLogger {
+
+    private final transient JsonLoggerFactory factory;
+
+    JsonLogger(String name, JsonLoggerFactory factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return factory.level.toInt() <= Level.TRACE.toInt();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return factory.level.toInt() <= Level.DEBUG.toInt() || factory.sampled;
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return factory.level.toInt() <= Level.INFO.toInt();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return factory.level.toInt() <= Level.WARN.toInt();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return true;
+    }
+
+    @Override
+    protected String getFullyQualifiedCallerName() {
+        return null;
+    }
+
+    @Override
+    protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern, Object[] arguments,
+                                               Throwable throwable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        factory.appender.append(new LogEvent(System.currentTimeMillis(), level, name, messagePattern,
+                LogEvent.capture(arguments), throwable, context == null || context.isEmpty() ? null : context));
+    }
+}
@@ -0,0 +1,135 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Creates the {@link JsonLogger}s and holds their shared configuration, read from environment variables that a system
+ * property of the same name overrides:
+ * <ul>
+ *     <li>{@code LOG_LEVEL}: {@code trace}, {@code debug}, {@code info} (default), {@code warn} or {@code error}.
+ *     Falls back to {@code AWS_LAMBDA_LOG_LEVEL}, which Lambda sets from the function's logging configuration; its
+ *     {@code fatal} is taken as {@code error}.</li>
+ *     <li>{@code LOG_DEBUG_SAMPLE_RATE}: fraction of invocations, between 0 (default) and 1, that log at debug level
+ *     regardless of {@code LOG_LEVEL}.</li>
+ *     <li>{@code LOG_ASYNC}: {@code false} to write log events on the calling thread.</li>
+ *     <li>{@code LOG_BUFFER_SIZE}: number of log events that can wait to be written, 1024 by default.</li>
+ * </ul>
+ * An invalid value is reported on stderr and the default used instead: logging is not yet available at this point, and
+ * failing here would fail the initialization of every class that gets a logger.
+ */
+public final class JsonLoggerFactory implements ILoggerFactory {
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+    private static final Level DEFAULT_LEVEL = Level.INFO;
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    final Level level;
+    final AsyncJsonAppender appender;
+    private final double debugSampleRate;
+    private final ConcurrentMap<String, Logger> loggers = new ConcurrentHashMap<>();
+    volatile boolean sampled;
+
+    public JsonLoggerFactory(Level level, double debugSampleRate, AsyncJsonAppender appender) {
+        this.level = level;
+        this.debugSampleRate = debugSampleRate;
+        this.appender = appender;
+        this.sampled = sample();
+    }
+
+    static JsonLoggerFactory fromEnvironment() {
+        Level level = level(setting("LOG_LEVEL", null) != null ? "LOG_LEVEL" : "AWS_LAMBDA_LOG_LEVEL");
+        double debugSampleRate = debugSampleRate("LOG_DEBUG_SAMPLE_RATE");
+        boolean async = Boolean.parseBoolean(setting("LOG_ASYNC", "true"));
+        int capacity = bufferSize("LOG_BUFFER_SIZE");
+        // Lambda's runtime interface reads stdout; the stream is not closed so that System.out stays usable
+        return new JsonLoggerFactory(level, debugSampleRate,
+                new AsyncJsonAppender(new FileOutputStream(FileDescriptor.out), async, capacity));
+    }
+
+    @Override
+    public Logger getLogger(String name) {
+        return loggers.computeIfAbsent(name, loggerName -> new JsonLogger(loggerName, this));
+    }
+
+    /**
+     * Writes out the log events of the invocation that is ending and decides whether the next one logs at debug level.
+     */
+    public void afterInvocation() {
+        if (!appender.flush(FLUSH_TIMEOUT_MILLIS)) {
+            System.err.println("Timed out writing log events");
+        }
+        sampled = sample();
+    }
+
+    private boolean sample() {
+        return debugSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < debugSampleRate;
+    }
+
+    private static Level level(String name) {
+        String value = setting(name, null);
+        if (value == null) {
+            return DEFAULT_LEVEL;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        if (normalized.equals("FATAL")) {
+            // A Lambda log level that SLF4J does not have
+            return Level.ERROR;
+        }
+        try {
+            return Level.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            return invalid(name, value, DEFAULT_LEVEL);
+        }
+    }
+
+    private static double debugSampleRate(String name) {
+        String value = setting(name, null);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            double rate = Double.parseDouble(value.trim());
+            return rate >= 0 && rate <= 1 ? rate : invalid(name, value, 0.0);
+        } catch (NumberFormatException e) {
+            return invalid(name, value, 0.0);
+        }
+    }
+
+    private static int bufferSize(String name) {
+        String value = setting(name, null);
+        if (value == null) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        try {
+            int size = Integer.parseInt(value.trim());
+            return size > 0 ? size : invalid(name, value, DEFAULT_BUFFER_SIZE);
+        } catch (NumberFormatException e) {
+            return invalid(name, value, DEFAULT_BUFFER_SIZE);
+        }
+    }
+
+    private static <T> T invalid(String name, String value, T defaultValue) {
+        System.err.println("Ignoring invalid value '" + value + "' for " + name);
+        return defaultValue;
+    }
+
+    private static String setting(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(name);
+        }
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
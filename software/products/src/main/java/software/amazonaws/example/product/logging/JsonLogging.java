@@ -0,0 +1,27 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point for the handlers, which do not need to know which SLF4J binding is in use.
+ */
+public final class JsonLogging {
+
+    private JsonLogging() {
+    }
+
+    /**
+     * Must be called before a handler returns: Lambda may freeze the execution environment as soon as it does, which
+     * would hold back log events still waiting to be written. Does nothing when SLF4J is bound to another logger.
+     */
+    public static void afterInvocation() {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (factory instanceof JsonLoggerFactory jsonLoggerFactory) {
+            jsonLoggerFactory.afterInvocation();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A logging call as captured on the calling thread. The message is only formatted when the event is written, see
+ * {@link #capture(Object[])} for why that is safe.
+ */
+final class LogEvent {
+
+    final long timestampMillis;
+    final Level level;
+    final String loggerName;
+    final String pattern;
+    final Object[] arguments;
+    final Throwable throwable;
+    final Map<String, String> context;
+
+    LogEvent(long timestampMillis, Level level, String loggerName, String pattern, Object[] arguments,
+             Throwable throwable, Map<String, String> context) {
+        this.timestampMillis = timestampMillis;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.pattern = pattern;
+        this.arguments = arguments;
+        this.throwable = throwable;
+        this.context = context;
+    }
+
+    String message() {
+        return arguments == null ? pattern : MessageFormatter.basicArrayFormat(pattern, arguments);
+    }
+
+    /**
+     * Prepares arguments for formatting on another thread. Immutable values, most importantly strings such as request
+     * bodies, are kept as they are, so the formatting and copying is done by the writer. Anything else is turned into
+     * a string now, because it may have changed by the time the writer gets to it.
+     */
+    static Object[] capture(Object[] arguments) {
+        if (arguments == null) {
+            return null;
+        }
+        Object[] captured = arguments.clone();
+        for (int i = 0; i < captured.length; i++) {
+            Object argument = captured[i];
+            if (argument != null && !isImmutable(argument)) {
+                captured[i] = String.valueOf(argument);
+            }
+        }
+        return captured;
+    }
+
+    private static boolean isImmutable(Object argument) {
+        return argument instanceof String || argument instanceof Integer || argument instanceof Long
+                || argument instanceof BigDecimal || argument instanceof Boolean || argument instanceof Enum
+                || argument instanceof Double || argument instanceof Character;
+    }
+}
@@ -0,0 +1,120 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.metrics;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes metrics as CloudWatch Embedded Metric Format lines to standard output, from where Lambda sends them to
+ * CloudWatch Logs, which extracts the metrics:
+ * <pre>
+ * {"_aws":{"Timestamp":1714564800123,"CloudWatchMetrics":[{"Namespace":"Products","Dimensions":[["FunctionName"]],
+ *   "Metrics":[{"Name":"StoreTime","Unit":"Milliseconds"},{"Name":"HandlerTime","Unit":"Milliseconds"}]}]},
+ *  "FunctionName":"GetProductFunction","StoreTime":4.2,"HandlerTime":5.1}
+ * </pre>
+ * Configured with environment variables, which a system property of the same name overrides:
+ * {@code METRICS_ENABLED}, {@code true} by default, and {@code METRICS_NAMESPACE}, {@value #DEFAULT_NAMESPACE} by
+ * default.
+ */
+final class EmfWriter {
+
+    static final String DEFAULT_NAMESPACE = "Products";
+    static final String FUNCTION_NAME_DIMENSION = "FunctionName";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String namespace;
+    private final OutputStream out;
+
+    EmfWriter(String namespace, OutputStream out) {
+        this.namespace = namespace;
+        this.out = out;
+    }
+
+    /**
+     * @return the writer configured by the environment, or {@code null} if metrics are disabled
+     */
+    static EmfWriter fromEnvironment() {
+        if (!Boolean.parseBoolean(setting("METRICS_ENABLED", "true"))) {
+            return null;
+        }
+        return new EmfWriter(setting("METRICS_NAMESPACE", DEFAULT_NAMESPACE), new FileOutputStream(FileDescriptor.out));
+    }
+
+    void write(String functionName, Map<String, Long> timesNanos, Map<String, Long> counts) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        try {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(line, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("_aws");
+                generator.writeNumberField("Timestamp", System.currentTimeMillis());
+                generator.writeArrayFieldStart("CloudWatchMetrics");
+                generator.writeStartObject();
+                generator.writeStringField("Namespace", namespace);
+                generator.writeArrayFieldStart("Dimensions");
+                generator.writeStartArray();
+                if (functionName != null) {
+                    generator.writeString(FUNCTION_NAME_DIMENSION);
+                }
+                generator.writeEndArray();
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("Metrics");
+                for (String name : timesNanos.keySet()) {
+                    writeDefinition(generator, name, "Milliseconds");
+                }
+                for (String name : counts.keySet()) {
+                    writeDefinition(generator, name, "Count");
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeEndArray();
+                generator.writeEndObject();
+
+                if (functionName != null) {
+                    generator.writeStringField(FUNCTION_NAME_DIMENSION, functionName);
+                }
+                for (Map.Entry<String, Long> time : timesNanos.entrySet()) {
+                    generator.writeNumberField(time.getKey(), time.getValue() / 1_000_000.0);
+                }
+                for (Map.Entry<String, Long> count : counts.entrySet()) {
+                    generator.writeNumberField(count.getKey(), count.getValue());
+                }
+                generator.writeEndObject();
+            }
+            line.write('\n');
+            // One write per line, so that the line is not interleaved with log output
+            synchronized (out) {
+                line.writeTo(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Metrics must never fail a request
+            System.err.println("Failed to write metrics: " + e);
+        }
+    }
+
+    private static void writeDefinition(JsonGenerator generator, String name, String unit) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("Name", name);
+        generator.writeStringField("Unit", unit);
+        generator.writeEndObject();
+    }
+
+    private static String setting(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(name);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
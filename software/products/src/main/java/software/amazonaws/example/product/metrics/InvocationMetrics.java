@@ -0,0 +1,152 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.metrics;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings and counts collected during one invocation and written as a single CloudWatch Embedded Metric Format (EMF)
+ * line when it ends, see {@link EmfWriter}. CloudWatch extracts the metrics from the function's logs, so recording
+ * them costs no network calls.
+ * <p>
+ * Handlers call {@link #begin(Context)} and {@link #end()} around each invocation; code further down reaches the
+ * invocation's metrics through {@link #current()}. That only works on the handler's thread, so asynchronous code has
+ * to look the metrics up before it hands work to another thread. When metrics are disabled, or no invocation is in
+ * progress, {@link #current()} returns an instance that ignores everything recorded to it.
+ */
+public final class InvocationMetrics {
+
+    /** Total time spent in the handler. */
+    public static final String HANDLER_TIME = "HandlerTime";
+    /** Time spent in {@code ProductStore} calls, i.e. waiting for DynamoDB. */
+    public static final String STORE_TIME = "StoreTime";
+    /** Time spent writing response bodies. */
+    public static final String SERIALIZATION_TIME = "SerializationTime";
+    /** Time spent reading request bodies. */
+    public static final String DESERIALIZATION_TIME = "DeserializationTime";
+    /** Store calls retried after throttling or a transient failure. */
+    public static final String STORE_RETRIES = "StoreRetries";
+    /** Reads that sent a second, hedged request because the first was slow. */
+    public static final String STORE_HEDGES = "StoreHedges";
+    public static final String CACHE_HITS = "CacheHits";
+    public static final String CACHE_MISSES = "CacheMisses";
+
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+    private static final InvocationMetrics DISABLED = new InvocationMetrics(null, null);
+
+    private final String functionName;
+    private final EmfWriter writer;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> timesNanos = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    // Nested handlers, i.e. the router's routes, share the outer invocation's metrics
+    private int depth = 1;
+
+    private InvocationMetrics(String functionName, EmfWriter writer) {
+        this.functionName = functionName;
+        this.writer = writer;
+    }
+
+    /**
+     * Starts collecting metrics for an invocation on the calling thread, unless one is already in progress, in which
+     * case that one is returned.
+     */
+    public static InvocationMetrics begin(Context context) {
+        return begin(context == null ? null : context.getFunctionName(), Writer.INSTANCE);
+    }
+
+    static InvocationMetrics begin(String functionName, EmfWriter writer) {
+        InvocationMetrics current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        if (writer == null) {
+            return DISABLED;
+        }
+
+        current = new InvocationMetrics(functionName, writer);
+        CURRENT.set(current);
+        return current;
+    }
+
+    /**
+     * @return the metrics of the invocation in progress on the calling thread
+     */
+    public static InvocationMetrics current() {
+        InvocationMetrics current = CURRENT.get();
+        return current != null ? current : DISABLED;
+    }
+
+    /**
+     * Records {@link #HANDLER_TIME} and writes the invocation's metrics.
+     */
+    public void end() {
+        if (writer == null || --depth > 0) {
+            return;
+        }
+
+        CURRENT.remove();
+        addTime(HANDLER_TIME, System.nanoTime() - startNanos);
+        Map<String, Long> times;
+        Map<String, Long> countsSnapshot;
+        synchronized (this) {
+            times = new LinkedHashMap<>(timesNanos);
+            countsSnapshot = new LinkedHashMap<>(counts);
+        }
+        writer.write(functionName, times, countsSnapshot);
+    }
+
+    /**
+     * Runs {@code work} and adds the time it took to {@code metric}.
+     */
+    public <T, E extends Exception> T time(String metric, TimedWork<T, E> work) throws E {
+        if (writer == null) {
+            return work.run();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return work.run();
+        } finally {
+            addTime(metric, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds {@code nanos} to {@code metric}. Safe to call from any thread.
+     */
+    public void addTime(String metric, long nanos) {
+        if (writer == null) {
+            return;
+        }
+        synchronized (this) {
+            timesNanos.merge(metric, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Adds {@code count} to {@code metric}; a count of 0 still reports the metric. Safe to call from any thread.
+     */
+    public void count(String metric, long count) {
+        if (writer == null) {
+            return;
+        }
+        synchronized (this) {
+            counts.merge(metric, count, Long::sum);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TimedWork<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final class Writer {
+        private static final EmfWriter INSTANCE = EmfWriter.fromEnvironment();
+    }
+}
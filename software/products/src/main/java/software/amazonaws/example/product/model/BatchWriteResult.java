@@ -0,0 +1,36 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.model;
+
+import java.util.List;
+
+public class BatchWriteResult {
+
+    private String message;
+    private List<String> unprocessedIds;
+
+    public BatchWriteResult() {
+    }
+
+    public BatchWriteResult(String message, List<String> unprocessedIds) {
+        this.message = message;
+        this.unprocessedIds = unprocessedIds;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<String> getUnprocessedIds() {
+        return unprocessedIds;
+    }
+
+    public void setUnprocessedIds(List<String> unprocessedIds) {
+        this.unprocessedIds = unprocessedIds;
+    }
+}
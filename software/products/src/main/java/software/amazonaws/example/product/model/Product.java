@@ -11,6 +11,7 @@ public class Product {
     private String id;
     private String name;
     private BigDecimal price;
+    private Long version;
 
     public Product() {
     }
@@ -21,6 +22,11 @@ public class Product {
         setPrice(this.price = price);
     }
 
+    public Product(String id, String name, BigDecimal price, Long version) {
+        this(id, name, price);
+        this.version = version;
+    }
+
     public String getId() {
         return id;
     }
@@ -45,12 +51,26 @@ public class Product {
         this.price = price.setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * The number of times the product has been written, with {@code putProduct} or {@code putProducts}, or
+     * {@code null} if it is not known. In a product passed to {@code putProduct} it is the version the write expects
+     * to replace.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", price=" + price +
+                ", version=" + version +
                 '}';
     }
 }
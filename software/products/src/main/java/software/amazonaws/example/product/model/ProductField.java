@@ -0,0 +1,60 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a {@link Product}, for reading and returning only some of them.
+ */
+public enum ProductField {
+
+    ID("id"), NAME("name"), PRICE("price"), VERSION("version");
+
+    public static final Set<ProductField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ProductField.class));
+
+    private final String fieldName;
+
+    ProductField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * @return the name of the field in JSON
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Parses a comma separated list of field names, such as the {@code fields} query parameter. The ID is always
+     * included, since products cannot be told apart without it.
+     *
+     * @param fields the list, or {@code null} for every field
+     * @throws IllegalArgumentException if a name is not a field of {@link Product}
+     */
+    public static Set<ProductField> parse(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+
+        Set<ProductField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.fieldName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + trimmed + "', expected "
+                            + Arrays.stream(values()).map(ProductField::getFieldName).collect(Collectors.joining(", ")))));
+        }
+        return parsed.size() == values().length ? ALL : parsed;
+    }
+}
@@ -0,0 +1,371 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads and writes the model classes with the Jackson streaming API.
+ * <p>
+ * Products can also be read and written as CBOR ({@value #CBOR_CONTENT_TYPE}), with the same fields and validation as
+ * JSON. CBOR is cheaper for other services to parse: numbers and strings are length-prefixed rather than scanned
+ * character by character, and prices are written as decimal fractions instead of text.
+ * <p>
+ * Unlike data binding this needs no reflection, so the model classes do not have to be registered for reflection in
+ * the native image, and the only allocations are the objects being read and the resulting string. Output is written to
+ * a per-thread buffer that is reused across invocations.
+ * <p>
+ * Input is validated while it is read: unknown and duplicate fields, values of the wrong type, missing required fields
+ * and trailing content are rejected with a {@link JsonParseException}.
+ */
+public final class ProductJsonCodec {
+
+    public static final String CBOR_CONTENT_TYPE = "application/cbor";
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String PRICE = "price";
+    private static final String VERSION = "version";
+    private static final String PRODUCTS = "products";
+    private static final String NEXT_CURSOR = "nextCursor";
+    private static final String IDS = "ids";
+    private static final String MESSAGE = "message";
+    private static final String UNPROCESSED_IDS = "unprocessedIds";
+
+    /**
+     * Buffers that have grown past this size are not kept for the next invocation.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private static final ThreadLocal<Utf8Buffer> BUFFER = ThreadLocal.withInitial(Utf8Buffer::new);
+
+    private ProductJsonCodec() {
+    }
+
+    public static String writeProduct(Product product) {
+        return writeProduct(product, ProductField.ALL);
+    }
+
+    /**
+     * Writes only the given fields of the product, for sparse field selection.
+     */
+    public static String writeProduct(Product product, Set<ProductField> fields) {
+        return write(generator -> writeProduct(generator, product, fields));
+    }
+
+    /**
+     * @see #writeProduct(Product, Set)
+     */
+    public static byte[] writeProductCbor(Product product, Set<ProductField> fields) {
+        return writeBytes(CBOR_FACTORY, generator -> writeProduct(generator, product, fields));
+    }
+
+    public static String writeProducts(Products products) {
+        return writeProducts(products, ProductField.ALL);
+    }
+
+    /**
+     * Writes only the given fields of each product, for sparse field selection.
+     */
+    public static String writeProducts(Products products, Set<ProductField> fields) {
+        return write(generator -> writeProducts(generator, products, fields));
+    }
+
+    /**
+     * @see #writeProducts(Products, Set)
+     */
+    public static byte[] writeProductsCbor(Products products, Set<ProductField> fields) {
+        return writeBytes(CBOR_FACTORY, generator -> writeProducts(generator, products, fields));
+    }
+
+    private static void writeProducts(JsonGenerator generator, Products products, Set<ProductField> fields)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(PRODUCTS);
+        if (products.getProducts() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (Product product : products.getProducts()) {
+                writeProduct(generator, product, fields);
+            }
+            generator.writeEndArray();
+        }
+        if (products.getNextCursor() != null) {
+            generator.writeStringField(NEXT_CURSOR, products.getNextCursor());
+        }
+        generator.writeEndObject();
+    }
+
+    public static String writeBatchWriteResult(BatchWriteResult result) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField(MESSAGE, result.getMessage());
+            generator.writeFieldName(UNPROCESSED_IDS);
+            writeStrings(generator, result.getUnprocessedIds());
+            generator.writeEndObject();
+        });
+    }
+
+    public static Product readProduct(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readSingleProduct(parser);
+        }
+    }
+
+    /**
+     * @see #readProduct(String)
+     */
+    public static Product readProductCbor(byte[] cbor) throws IOException {
+        try (JsonParser parser = CBOR_FACTORY.createParser(cbor)) {
+            return readSingleProduct(parser);
+        }
+    }
+
+    private static Product readSingleProduct(JsonParser parser) throws IOException {
+        parser.nextToken();
+        Product product = readProduct(parser);
+        expectEnd(parser);
+        return product;
+    }
+
+    /**
+     * Reads a batch of products. Only the {@code products} field is accepted, a cursor has no meaning in a request.
+     */
+    public static Products readProducts(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            List<Product> products = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (!PRODUCTS.equals(field) || products != null) {
+                    throw unexpectedField(parser, field);
+                }
+                expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+                products = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    products.add(readProduct(parser));
+                }
+            }
+            expectEnd(parser);
+            return new Products(products);
+        }
+    }
+
+    public static ProductIds readProductIds(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            List<String> ids = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (!IDS.equals(field) || ids != null) {
+                    throw unexpectedField(parser, field);
+                }
+                expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+                ids = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    expect(parser, parser.currentToken(), JsonToken.VALUE_STRING);
+                    ids.add(parser.getText());
+                }
+            }
+            expectEnd(parser);
+            return new ProductIds(ids);
+        }
+    }
+
+    private static Product readProduct(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        String id = null;
+        String name = null;
+        BigDecimal price = null;
+        Long version = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case ID -> {
+                    if (id != null) {
+                        throw unexpectedField(parser, field);
+                    }
+                    expect(parser, value, JsonToken.VALUE_STRING);
+                    id = parser.getText();
+                }
+                case NAME -> {
+                    if (name != null) {
+                        throw unexpectedField(parser, field);
+                    }
+                    expect(parser, value, JsonToken.VALUE_STRING);
+                    name = parser.getText();
+                }
+                case PRICE -> {
+                    if (price != null) {
+                        throw unexpectedField(parser, field);
+                    }
+                    price = readPrice(parser, value);
+                }
+                case VERSION -> {
+                    if (version != null) {
+                        throw unexpectedField(parser, field);
+                    }
+                    version = readVersion(parser, value);
+                }
+                default -> throw unexpectedField(parser, field);
+            }
+        }
+
+        if (id == null || id.isEmpty()) {
+            throw new JsonParseException(parser, "Product requires a non-empty '" + ID + "'");
+        }
+        if (name == null) {
+            throw new JsonParseException(parser, "Product requires a '" + NAME + "'");
+        }
+        if (price == null) {
+            throw new JsonParseException(parser, "Product requires a '" + PRICE + "'");
+        }
+        return new Product(id, name, price, version);
+    }
+
+    private static BigDecimal readPrice(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return new BigDecimal(parser.getText());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Invalid '" + PRICE + "': " + parser.getText(), e);
+            }
+        }
+        throw new JsonParseException(parser, "Invalid '" + PRICE + "': expected a number but found " + value);
+    }
+
+    private static long readVersion(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                || parser.getLongValue() < 0) {
+            throw new JsonParseException(parser, "Invalid '" + VERSION + "': expected a non-negative integer");
+        }
+        return parser.getLongValue();
+    }
+
+    private static void writeProduct(JsonGenerator generator, Product product, Set<ProductField> fields)
+            throws IOException {
+        generator.writeStartObject();
+        if (fields.contains(ProductField.ID)) {
+            generator.writeStringField(ID, product.getId());
+        }
+        if (fields.contains(ProductField.NAME)) {
+            generator.writeStringField(NAME, product.getName());
+        }
+        if (fields.contains(ProductField.PRICE)) {
+            generator.writeFieldName(PRICE);
+            generator.writeNumber(product.getPrice());
+        }
+        if (fields.contains(ProductField.VERSION) && product.getVersion() != null) {
+            generator.writeNumberField(VERSION, product.getVersion());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, List<String> values) throws IOException {
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static void expectEnd(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, "Unexpected content after the end of the document");
+        }
+    }
+
+    private static JsonParseException unexpectedField(JsonParser parser, String field) {
+        return new JsonParseException(parser, "Unexpected or duplicate field '" + field + "'");
+    }
+
+    private static String write(Writer writer) {
+        Utf8Buffer buffer = fill(JSON_FACTORY, writer);
+        String json = buffer.toUtf8String();
+        release(buffer);
+        return json;
+    }
+
+    private static byte[] writeBytes(JsonFactory factory, Writer writer) {
+        Utf8Buffer buffer = fill(factory, writer);
+        byte[] bytes = buffer.toByteArray();
+        release(buffer);
+        return bytes;
+    }
+
+    private static Utf8Buffer fill(JsonFactory factory, Writer writer) {
+        Utf8Buffer buffer = BUFFER.get();
+        buffer.reset();
+        try (JsonGenerator generator = factory.createGenerator(buffer, JsonEncoding.UTF8)) {
+            writer.write(generator);
+        } catch (IOException e) {
+            // Only reachable through a bug in this class, the buffer itself never fails
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    private static void release(Utf8Buffer buffer) {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Exposes the backing array so the result can be decoded without first copying it with {@code toByteArray()}.
+     */
+    private static final class Utf8Buffer extends ByteArrayOutputStream {
+
+        Utf8Buffer() {
+            super(1024);
+        }
+
+        String toUtf8String() {
+            return new String(buf, 0, count, StandardCharsets.UTF_8);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.model;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Criteria for searching products: a price range and a name prefix, each of which may be left out. Prices are
+ * inclusive and the prefix is matched case-insensitively.
+ */
+public class ProductQuery {
+
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final String namePrefix;
+
+    public ProductQuery(BigDecimal minPrice, BigDecimal maxPrice, String namePrefix) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (namePrefix != null && namePrefix.isEmpty()) {
+            throw new IllegalArgumentException("namePrefix must not be empty");
+        }
+
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.namePrefix = namePrefix;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /**
+     * @return the form names are compared in, see {@link #getNamePrefix()}
+     */
+    public static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public boolean matches(Product product) {
+        if (minPrice != null && product.getPrice().compareTo(minPrice) < 0) {
+            return false;
+        }
+        if (maxPrice != null && product.getPrice().compareTo(maxPrice) > 0) {
+            return false;
+        }
+        return namePrefix == null || nameKey(product.getName()).startsWith(nameKey(namePrefix));
+    }
+
+    @Override
+    public String toString() {
+        return "ProductQuery{" +
+                "minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", namePrefix='" + namePrefix + '\'' +
+                '}';
+    }
+}
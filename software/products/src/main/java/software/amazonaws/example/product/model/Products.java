@@ -9,6 +9,8 @@ public class Products {
 
     private List<Product> products;
 
+    private String nextCursor;
+
     public Products() {
     }
 
@@ -16,6 +18,11 @@ public class Products {
         this.products = products;
     }
 
+    public Products(List<Product> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
     public List<Product> getProducts() {
         return products;
     }
@@ -23,5 +30,13 @@ public class Products {
     public void setProducts(List<Product> products) {
         this.products = products;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
 
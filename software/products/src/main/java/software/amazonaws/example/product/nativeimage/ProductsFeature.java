@@ -0,0 +1,32 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.nativeimage;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+
+/**
+ * Moves initialization that does not depend on the Lambda environment from function init to image build time.
+ * <p>
+ * Only classes whose static state is pure configuration are listed here: the Jackson streaming API, its CBOR backend
+ * and the model classes, including the {@code JsonFactory} and {@code CBORFactory} held by the codec. The DynamoDB
+ * client reads credentials and region from the environment and holds native CRT resources, so it stays runtime
+ * initialized and is created lazily by {@link software.amazonaws.example.product.store.dynamodb.DynamoDbClients}. The
+ * logging and metrics packages read their configuration from the environment, and logging starts its writer thread on
+ * first use, so they stay runtime initialized as well.
+ */
+public final class ProductsFeature implements Feature {
+
+    @Override
+    public String getDescription() {
+        return "Initializes the Jackson streaming API and the product model at image build time";
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        RuntimeClassInitialization.initializeAtBuildTime("com.fasterxml.jackson.core");
+        RuntimeClassInitialization.initializeAtBuildTime("com.fasterxml.jackson.dataformat.cbor");
+        RuntimeClassInitialization.initializeAtBuildTime("software.amazonaws.example.product.model");
+    }
+}
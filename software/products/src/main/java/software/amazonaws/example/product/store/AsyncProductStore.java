@@ -0,0 +1,70 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ProductStore}. Failures, including invalid arguments, are reported by completing
+ * the returned future exceptionally rather than by throwing.
+ */
+public interface AsyncProductStore {
+
+    CompletableFuture<Optional<Product>> getProduct(String id);
+
+    /**
+     * @see ProductStore#getProduct(String, Set)
+     */
+    default CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        return getProduct(id);
+    }
+
+    /**
+     * @see ProductStore#putProduct(Product)
+     */
+    CompletableFuture<Void> putProduct(Product product);
+
+    CompletableFuture<Void> deleteProduct(String id);
+
+    /**
+     * @see ProductStore#getAllProduct(int, String)
+     */
+    CompletableFuture<Products> getAllProduct(int limit, String cursor);
+
+    /**
+     * @see ProductStore#getAllProduct(int, String, Set)
+     */
+    default CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return getAllProduct(limit, cursor);
+    }
+
+    /**
+     * @see ProductStore#searchProducts(ProductQuery, int, String)
+     */
+    CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor);
+
+    /**
+     * @see ProductStore#getProducts(Collection)
+     */
+    CompletableFuture<Products> getProducts(Collection<String> ids);
+
+    /**
+     * @see ProductStore#putProducts(Collection)
+     */
+    CompletableFuture<List<String>> putProducts(Collection<Product> products);
+
+    /**
+     * @see ProductStore#deleteProducts(Collection)
+     */
+    CompletableFuture<List<String>> deleteProducts(Collection<String> ids);
+}
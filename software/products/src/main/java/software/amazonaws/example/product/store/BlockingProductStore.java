@@ -0,0 +1,149 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Exposes an {@link AsyncProductStore} through the blocking {@link ProductStore} interface by waiting for each call
+ * to complete.
+ */
+public class BlockingProductStore implements ProductStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingProductStore.class);
+
+    private final AsyncProductStore asyncProductStore;
+
+    public BlockingProductStore(AsyncProductStore asyncProductStore) {
+        this.asyncProductStore = asyncProductStore;
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id) {
+        return getProduct(id, ProductField.ALL);
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id, Set<ProductField> fields) {
+        try {
+            return (fields == ProductField.ALL
+                    ? asyncProductStore.getProduct(id)
+                    : asyncProductStore.getProduct(id, fields)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("getItem failed with message {}", e.getMessage());
+            throw failure("get product", e);
+        }
+    }
+
+    @Override
+    public void putProduct(Product product) {
+        try {
+            asyncProductStore.putProduct(product).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (!(e.getCause() instanceof ProductVersionConflictException)) {
+                logger.error("putItem failed with stacktrace", e);
+            }
+            throw failure("write product", e);
+        }
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        try {
+            asyncProductStore.deleteProduct(id).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Deleting item with Id {} failed with message {}", id, e.getMessage());
+            throw failure("delete product", e);
+        }
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor) {
+        return getAllProduct(limit, cursor, ProductField.ALL);
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        try {
+            return (fields == ProductField.ALL
+                    ? asyncProductStore.getAllProduct(limit, cursor)
+                    : asyncProductStore.getAllProduct(limit, cursor, fields)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (!(e.getCause() instanceof IllegalArgumentException)) {
+                logger.error("scan failed with message {}", e.getMessage());
+            }
+            throw failure("list products", e);
+        }
+    }
+
+    @Override
+    public Products searchProducts(ProductQuery query, int limit, String cursor) {
+        try {
+            return asyncProductStore.searchProducts(query, limit, cursor).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (!(e.getCause() instanceof IllegalArgumentException)) {
+                logger.error("query failed with message {}", e.getMessage());
+            }
+            throw failure("search products", e);
+        }
+    }
+
+    @Override
+    public Products getProducts(Collection<String> ids) {
+        try {
+            return asyncProductStore.getProducts(ids).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("batchGetItem failed with message {}", e.getMessage());
+            throw failure("get products", e);
+        }
+    }
+
+    @Override
+    public List<String> putProducts(Collection<Product> products) {
+        try {
+            return asyncProductStore.putProducts(products).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("batchWriteItem failed with message {}", e.getMessage());
+            throw failure("write products", e);
+        }
+    }
+
+    @Override
+    public List<String> deleteProducts(Collection<String> ids) {
+        try {
+            return asyncProductStore.deleteProducts(ids).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("batchWriteItem failed with message {}", e.getMessage());
+            throw failure("delete products", e);
+        }
+    }
+
+    /**
+     * Failures that callers handle, conflicts, invalid arguments and an unavailable store, are rethrown as they are.
+     * Anything else becomes an {@link IllegalStateException}; in particular a failed read never looks like a missing
+     * product.
+     */
+    private static RuntimeException failure(String operation, Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable cause = e.getCause();
+        if (cause instanceof ProductVersionConflictException || cause instanceof IllegalArgumentException
+                || cause instanceof StoreUnavailableException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException("Failed to " + operation, e);
+    }
+}
@@ -4,17 +4,84 @@
 package software.amazonaws.example.product.store;
 
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
 import software.amazonaws.example.product.model.Products;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ProductStore {
 
     Optional<Product> getProduct(String id);
 
+    /**
+     * Fetches a product, of which only the given fields need to be read. Fields that are not requested may be left
+     * {@code null}; stores that cannot read part of a product return all of it.
+     */
+    default Optional<Product> getProduct(String id, Set<ProductField> fields) {
+        return getProduct(id);
+    }
+
+    /**
+     * Creates or replaces a product and increments its version. If {@link Product#getVersion()} is set, the write is
+     * conditional: {@code 0} only creates the product, any other value only replaces the product at that version.
+     *
+     * @throws ProductVersionConflictException if the stored product is not at the expected version
+     */
     void putProduct(Product product);
 
     void deleteProduct(String id);
 
-    Products getAllProduct();
+    /**
+     * Returns a single page of products.
+     *
+     * @param limit  maximum number of products to return in this page
+     * @param cursor opaque cursor taken from {@link Products#getNextCursor()} of the previous page, or {@code null}
+     *               to start from the beginning
+     * @return the page, whose {@code nextCursor} is {@code null} once the last page has been reached
+     * @throws IllegalArgumentException if the cursor is not one previously issued by this store
+     */
+    Products getAllProduct(int limit, String cursor);
+
+    /**
+     * Returns a single page of products, of which only the given fields need to be read.
+     *
+     * @see #getAllProduct(int, String)
+     * @see #getProduct(String, Set)
+     */
+    default Products getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return getAllProduct(limit, cursor);
+    }
+
+    /**
+     * Returns a single page of the products matching a query, ordered by name when the query has a name prefix and by
+     * price otherwise.
+     *
+     * @see #getAllProduct(int, String)
+     * @throws IllegalArgumentException if the cursor is not one previously issued by this store for a search
+     */
+    Products searchProducts(ProductQuery query, int limit, String cursor);
+
+    /**
+     * Fetches several products at once. IDs that do not exist are left out of the result.
+     */
+    Products getProducts(Collection<String> ids);
+
+    /**
+     * Creates or replaces several products at once. These writes are unconditional, but increment every product's
+     * version as {@link #putProduct(Product)} does, so that writers holding an earlier version see a conflict.
+     *
+     * @return the IDs of the products that could not be written after retrying, empty when all succeeded
+     */
+    List<String> putProducts(Collection<Product> products);
+
+    /**
+     * Deletes several products at once.
+     *
+     * @return the IDs of the products that could not be deleted after retrying, empty when all succeeded
+     */
+    List<String> deleteProducts(Collection<String> ids);
 }
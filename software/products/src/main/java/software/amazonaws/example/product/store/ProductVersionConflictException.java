@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+/**
+ * Thrown when a versioned write finds that the stored product is not at the version the write expected, because
+ * another writer got there first.
+ */
+public class ProductVersionConflictException extends RuntimeException {
+
+    public ProductVersionConflictException(String id, long expectedVersion) {
+        super("Product " + id + " is not at version " + expectedVersion);
+    }
+
+    public ProductVersionConflictException(String id, long expectedVersion, Throwable cause) {
+        super("Product " + id + " is not at version " + expectedVersion, cause);
+    }
+}
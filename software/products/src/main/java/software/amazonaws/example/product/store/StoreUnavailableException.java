@@ -0,0 +1,31 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+/**
+ * Thrown when the backing store cannot serve a call right now: it keeps throttling or failing, the invocation's
+ * deadline has passed, or the circuit breaker is failing calls fast. Callers should try again later, after
+ * {@link #getRetryAfterMillis()} if it is known.
+ */
+public class StoreUnavailableException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public StoreUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public StoreUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryAfterMillis = 0;
+    }
+
+    /**
+     * @return how long the store is expected to stay unavailable, or 0 if that is not known
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
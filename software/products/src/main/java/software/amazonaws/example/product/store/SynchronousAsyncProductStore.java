@@ -0,0 +1,96 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Exposes a {@link ProductStore} through the {@link AsyncProductStore} interface. Each call runs on the calling thread
+ * and returns an already completed future; exceptions complete the future exceptionally, as the interface requires.
+ * <p>
+ * Intended for stores that do no I/O, such as the in-memory store, where handing work to another thread would cost
+ * more than the work itself.
+ */
+public class SynchronousAsyncProductStore implements AsyncProductStore {
+
+    private final ProductStore productStore;
+
+    public SynchronousAsyncProductStore(ProductStore productStore) {
+        this.productStore = productStore;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id) {
+        return complete(() -> productStore.getProduct(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        return complete(() -> productStore.getProduct(id, fields));
+    }
+
+    @Override
+    public CompletableFuture<Void> putProduct(Product product) {
+        return complete(() -> {
+            productStore.putProduct(product);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProduct(String id) {
+        return complete(() -> {
+            productStore.deleteProduct(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor) {
+        return complete(() -> productStore.getAllProduct(limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return complete(() -> productStore.getAllProduct(limit, cursor, fields));
+    }
+
+    @Override
+    public CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor) {
+        return complete(() -> productStore.searchProducts(query, limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getProducts(Collection<String> ids) {
+        return complete(() -> productStore.getProducts(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> putProducts(Collection<Product> products) {
+        return complete(() -> productStore.putProducts(products));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteProducts(Collection<String> ids) {
+        return complete(() -> productStore.deleteProducts(ids));
+    }
+
+    private static <T> CompletableFuture<T> complete(Supplier<T> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.ProductStore;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of another {@link ProductStore}.
+ * <p>
+ * Single product lookups are kept in a size-bounded LRU map for a fixed time, including lookups for products that do
+ * not exist (negative caching). Lookups always read the whole product, so that a cached entry can answer any selection
+ * of fields. Writes made through this store invalidate the affected entries; writes made by other functions become
+ * visible once the entry expires. Writes made through an {@link AsyncProductStore} in the same function invalidate
+ * them as well when it is wrapped with {@link #invalidating(AsyncProductStore)}. All other operations are passed
+ * straight through.
+ * <p>
+ * Hits and misses are counted for the lifetime of the store and reported per invocation through
+ * {@link InvocationMetrics}.
+ * <p>
+ * Only JDK collections are used so the cache needs no native-image configuration.
+ */
+public class CachingProductStore implements ProductStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingProductStore.class);
+
+    static final String MAX_SIZE_VARIABLE = "PRODUCT_CACHE_MAX_SIZE";
+    static final String TTL_SECONDS_VARIABLE = "PRODUCT_CACHE_TTL_SECONDS";
+    static final String NEGATIVE_TTL_SECONDS_VARIABLE = "PRODUCT_CACHE_NEGATIVE_TTL_SECONDS";
+
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final long DEFAULT_TTL_SECONDS = 30;
+    private static final long DEFAULT_NEGATIVE_TTL_SECONDS = 5;
+
+    private final ProductStore delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier ticker;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Incremented on every invalidation so that a lookup racing with a write does not cache the stale value
+    private long invalidations;
+
+    public CachingProductStore(ProductStore delegate, int maxSize, long ttl, long negativeTtl, TimeUnit unit) {
+        this(delegate, maxSize, unit.toNanos(ttl), unit.toNanos(negativeTtl), System::nanoTime);
+    }
+
+    CachingProductStore(ProductStore delegate, int maxSize, long ttlNanos, long negativeTtlNanos, LongSupplier ticker) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+
+        this.delegate = delegate;
+        this.ttlNanos = ttlNanos;
+        this.negativeTtlNanos = negativeTtlNanos;
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Wraps {@code delegate} in a cache configured by the {@value #MAX_SIZE_VARIABLE}, {@value #TTL_SECONDS_VARIABLE}
+     * and {@value #NEGATIVE_TTL_SECONDS_VARIABLE} environment variables. Setting the size or TTL to 0 disables the
+     * cache and returns {@code delegate} unchanged.
+     */
+    public static ProductStore fromEnvironment(ProductStore delegate) {
+        int maxSize = (int) longFromEnvironment(MAX_SIZE_VARIABLE, DEFAULT_MAX_SIZE);
+        long ttlSeconds = longFromEnvironment(TTL_SECONDS_VARIABLE, DEFAULT_TTL_SECONDS);
+        long negativeTtlSeconds = longFromEnvironment(NEGATIVE_TTL_SECONDS_VARIABLE, DEFAULT_NEGATIVE_TTL_SECONDS);
+
+        if (maxSize < 1 || ttlSeconds < 1) {
+            logger.info("Product cache disabled");
+            return delegate;
+        }
+
+        logger.info("Product cache enabled with max size {}, TTL {}s and negative TTL {}s", maxSize, ttlSeconds,
+                negativeTtlSeconds);
+        return new CachingProductStore(delegate, maxSize, ttlSeconds, negativeTtlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id) {
+        long now = ticker.getAsLong();
+        long generation;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (now - entry.expiresAt < 0) {
+                    hits.increment();
+                    countLookup(1, 0);
+                    return entry.product;
+                }
+                entries.remove(id);
+            }
+            generation = invalidations;
+        }
+
+        misses.increment();
+        countLookup(0, 1);
+        Optional<Product> product = delegate.getProduct(id);
+
+        long ttl = product.isPresent() ? ttlNanos : negativeTtlNanos;
+        if (ttl > 0) {
+            synchronized (entries) {
+                if (generation == invalidations) {
+                    entries.put(id, new Entry(product, now + ttl));
+                }
+            }
+        }
+        return product;
+    }
+
+    @Override
+    public void putProduct(Product product) {
+        try {
+            delegate.putProduct(product);
+        } finally {
+            invalidate(List.of(product.getId()));
+        }
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        try {
+            delegate.deleteProduct(id);
+        } finally {
+            invalidate(List.of(id));
+        }
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor) {
+        return delegate.getAllProduct(limit, cursor);
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return delegate.getAllProduct(limit, cursor, fields);
+    }
+
+    @Override
+    public Products searchProducts(ProductQuery query, int limit, String cursor) {
+        return delegate.searchProducts(query, limit, cursor);
+    }
+
+    @Override
+    public Products getProducts(Collection<String> ids) {
+        return delegate.getProducts(ids);
+    }
+
+    @Override
+    public List<String> putProducts(Collection<Product> products) {
+        try {
+            return delegate.putProducts(products);
+        } finally {
+            invalidate(products.stream().map(Product::getId).toList());
+        }
+    }
+
+    @Override
+    public List<String> deleteProducts(Collection<String> ids) {
+        try {
+            return delegate.deleteProducts(ids);
+        } finally {
+            invalidate(ids);
+        }
+    }
+
+    /**
+     * @return {@code asyncProductStore}, invalidating this cache's entries for the products it writes
+     */
+    public AsyncProductStore invalidating(AsyncProductStore asyncProductStore) {
+        return new InvalidatingAsyncProductStore(asyncProductStore, this);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static void countLookup(long hits, long misses) {
+        // Both are reported on every lookup so that the hit rate can be computed per function
+        InvocationMetrics metrics = InvocationMetrics.current();
+        metrics.count(InvocationMetrics.CACHE_HITS, hits);
+        metrics.count(InvocationMetrics.CACHE_MISSES, misses);
+    }
+
+    void invalidate(Collection<String> ids) {
+        synchronized (entries) {
+            invalidations++;
+            for (String id : ids) {
+                entries.remove(id);
+            }
+        }
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid value '{}' for {}", value, name);
+            return defaultValue;
+        }
+    }
+
+    private static final class Entry {
+        private final Optional<Product> product;
+        private final long expiresAt;
+
+        private Entry(Optional<Product> product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.cache;
+
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Invalidates the entries of a {@link CachingProductStore} for the products written through another
+ * {@link AsyncProductStore} of the same data, once each write has completed, so that handlers sharing the cache do not
+ * serve products that were replaced or deleted by a batch call. Reads are passed straight through.
+ *
+ * @see CachingProductStore#invalidating(AsyncProductStore)
+ */
+class InvalidatingAsyncProductStore implements AsyncProductStore {
+
+    private final AsyncProductStore delegate;
+    private final CachingProductStore cache;
+
+    InvalidatingAsyncProductStore(AsyncProductStore delegate, CachingProductStore cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id) {
+        return delegate.getProduct(id);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        return delegate.getProduct(id, fields);
+    }
+
+    @Override
+    public CompletableFuture<Void> putProduct(Product product) {
+        return invalidateAfter(delegate.putProduct(product), List.of(product.getId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProduct(String id) {
+        return invalidateAfter(delegate.deleteProduct(id), List.of(id));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor) {
+        return delegate.getAllProduct(limit, cursor);
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return delegate.getAllProduct(limit, cursor, fields);
+    }
+
+    @Override
+    public CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor) {
+        return delegate.searchProducts(query, limit, cursor);
+    }
+
+    @Override
+    public CompletableFuture<Products> getProducts(Collection<String> ids) {
+        return delegate.getProducts(ids);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> putProducts(Collection<Product> products) {
+        return invalidateAfter(delegate.putProducts(products), products.stream().map(Product::getId).toList());
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteProducts(Collection<String> ids) {
+        return invalidateAfter(delegate.deleteProducts(ids), List.copyOf(ids));
+    }
+
+    // Also on failure, as with CachingProductStore's own writes, because part of a batch may have been written
+    private <T> CompletableFuture<T> invalidateAfter(CompletableFuture<T> write, Collection<String> ids) {
+        return write.whenComplete((result, e) -> cache.invalidate(ids));
+    }
+}
@@ -0,0 +1,509 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.ProductVersionConflictException;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+import software.amazonaws.example.product.store.resilience.Failures;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class DynamoDbAsyncProductStore implements AsyncProductStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDbAsyncProductStore.class);
+    private static final String PRODUCT_TABLE_NAME = System.getenv("PRODUCT_TABLE_NAME");
+    // Read while priming; nothing is written, so it does not matter whether it exists
+    private static final String PRIMING_ID = "00000000-0000-0000-0000-000000000000";
+
+    // Service limits for BatchGetItem and BatchWriteItem
+    private static final int BATCH_GET_CHUNK_SIZE = 100;
+    private static final int BATCH_WRITE_CHUNK_SIZE = 25;
+
+    // Unprocessed keys/items are retried with exponential backoff and full jitter
+    private static final int MAX_BATCH_ATTEMPTS = 6;
+    private static final long BATCH_BACKOFF_BASE_MILLIS = 25;
+    private static final long BATCH_BACKOFF_MAX_MILLIS = 1000;
+
+    // Looked up on every call, because the shared client is replaced after a snapshot is restored
+    private final Supplier<DynamoDbAsyncClient> dynamoDbClient;
+
+    public DynamoDbAsyncProductStore() {
+        this.dynamoDbClient = DynamoDbClients::shared;
+    }
+
+    public DynamoDbAsyncProductStore(DynamoDbAsyncClient dynamoDbClient) {
+        this.dynamoDbClient = () -> dynamoDbClient;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id) {
+        return getProduct(id, ProductField.ALL);
+    }
+
+    /**
+     * Reads only the requested attributes with a {@code ProjectionExpression}. This reduces the data transferred and
+     * parsed, though DynamoDB still charges read capacity for the whole item.
+     */
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        GetItemRequest.Builder request = GetItemRequest.builder()
+                .key(ProductMapper.productKey(id))
+                .tableName(PRODUCT_TABLE_NAME);
+        if (!fields.containsAll(ProductField.ALL)) {
+            request.projectionExpression(ProductMapper.projectionExpression(fields))
+                    .expressionAttributeNames(ProductMapper.projectionAttributeNames(fields));
+        }
+
+        return dynamoDbClient.get().getItem(request.build())
+                .thenApply(getItemResponse -> getItemResponse.hasItem()
+                        ? Optional.of(ProductMapper.productFromDynamoDB(getItemResponse.item()))
+                        : Optional.empty());
+    }
+
+    /**
+     * Writes the product with an {@code UpdateItem} call that sets its attributes and increments its version in one
+     * step, so that concurrent writers always produce distinct versions. A versioned write adds a condition on the
+     * stored version, see {@link software.amazonaws.example.product.store.ProductStore#putProduct(Product)}.
+     */
+    @Override
+    public CompletableFuture<Void> putProduct(Product product) {
+        return update(product, product.getVersion());
+    }
+
+    private CompletableFuture<Void> update(Product product, Long expectedVersion) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#name", ProductMapper.NAME);
+        names.put("#price", ProductMapper.PRICE);
+        names.put("#version", ProductMapper.VERSION);
+        names.put("#shard", ProductMapper.SHARD);
+        names.put("#nameKey", ProductMapper.NAME_KEY);
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":name", AttributeValue.builder().s(product.getName()).build());
+        values.put(":price", AttributeValue.builder().n(product.getPrice().toString()).build());
+        values.put(":one", AttributeValue.builder().n("1").build());
+        values.put(":shard", ProductMapper.shard(product.getId()));
+        values.put(":nameKey", ProductMapper.nameKey(product.getName()));
+
+        UpdateItemRequest.Builder request = UpdateItemRequest.builder()
+                .tableName(PRODUCT_TABLE_NAME)
+                .key(ProductMapper.productKey(product.getId()))
+                .updateExpression("SET #name = :name, #price = :price, #shard = :shard, #nameKey = :nameKey "
+                        + "ADD #version :one");
+
+        if (expectedVersion != null && expectedVersion == 0) {
+            request.conditionExpression("attribute_not_exists(" + ProductMapper.PK + ")");
+        } else if (expectedVersion != null) {
+            request.conditionExpression("#version = :expected");
+            values.put(":expected", AttributeValue.builder().n(expectedVersion.toString()).build());
+        }
+
+        return dynamoDbClient.get().updateItem(request
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build())
+                .handle((updateItemResponse, throwable) -> {
+                    if (throwable == null) {
+                        return null;
+                    }
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        throw new ProductVersionConflictException(product.getId(), expectedVersion, cause);
+                    }
+                    throw throwable instanceof CompletionException
+                            ? (CompletionException) throwable
+                            : new CompletionException(throwable);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProduct(String id) {
+        return dynamoDbClient.get().deleteItem(DeleteItemRequest.builder()
+                        .tableName(PRODUCT_TABLE_NAME)
+                        .key(ProductMapper.productKey(id))
+                        .build())
+                .thenApply(deleteItemResponse -> null);
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor) {
+        return getAllProduct(limit, cursor, ProductField.ALL);
+    }
+
+    /**
+     * @see #getProduct(String, Set)
+     */
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        Map<String, AttributeValue> exclusiveStartKey;
+        try {
+            exclusiveStartKey = ProductMapper.keyFromCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        ScanRequest.Builder request = ScanRequest.builder()
+                .tableName(PRODUCT_TABLE_NAME)
+                .limit(limit)
+                .exclusiveStartKey(exclusiveStartKey);
+        if (!fields.containsAll(ProductField.ALL)) {
+            request.projectionExpression(ProductMapper.projectionExpression(fields))
+                    .expressionAttributeNames(ProductMapper.projectionAttributeNames(fields));
+        }
+
+        return dynamoDbClient.get().scan(request.build())
+                .thenApply(scanResponse -> {
+                    logger.info("Scan returned: {} item(s)", scanResponse.count());
+
+                    List<Product> productList = new ArrayList<>();
+
+                    for (Map<String, AttributeValue> item : scanResponse.items()) {
+                        productList.add(ProductMapper.productFromDynamoDB(item));
+                    }
+
+                    String nextCursor = scanResponse.hasLastEvaluatedKey()
+                            ? ProductMapper.cursorFromKey(scanResponse.lastEvaluatedKey())
+                            : null;
+
+                    return new Products(productList, nextCursor);
+                });
+    }
+
+    /**
+     * Queries every shard of the name index when the query has a name prefix, and of the price index otherwise, and
+     * merges the results. Price bounds are key conditions on the price index and a filter on the name index.
+     *
+     * @see ShardedQuery
+     */
+    @Override
+    public CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor) {
+        return new ShardedQuery(dynamoDbClient.get(), PRODUCT_TABLE_NAME, query).execute(limit, cursor)
+                .thenApply(products -> {
+                    logger.info("Query returned: {} item(s)", products.getProducts().size());
+                    return products;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Products> getProducts(Collection<String> ids) {
+        List<CompletableFuture<List<Map<String, AttributeValue>>>> chunks = new ArrayList<>();
+        for (List<String> chunk : chunk(new ArrayList<>(new LinkedHashSet<>(ids)), BATCH_GET_CHUNK_SIZE)) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>(chunk.size());
+            for (String id : chunk) {
+                keys.add(ProductMapper.productKey(id));
+            }
+            chunks.add(batchGet(Map.of(PRODUCT_TABLE_NAME, KeysAndAttributes.builder().keys(keys).build()), 1));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<Product> productList = new ArrayList<>();
+                    for (CompletableFuture<List<Map<String, AttributeValue>>> chunk : chunks) {
+                        for (Map<String, AttributeValue> item : chunk.join()) {
+                            productList.add(ProductMapper.productFromDynamoDB(item));
+                        }
+                    }
+                    return new Products(productList);
+                });
+    }
+
+    /**
+     * Writes each product with the same unconditional {@code UpdateItem} call as {@link #putProduct(Product)}, all of
+     * them concurrently, rather than with {@code BatchWriteItem}: a {@code PutRequest} replaces the item and cannot
+     * increment its version, so this is the only way to make sure a batch write never moves a version back. The HTTP
+     * client's connection limit bounds how many calls are in flight. Products whose call was throttled, after the SDK's
+     * own retries, are reported as unprocessed; any other failure fails the batch.
+     */
+    @Override
+    public CompletableFuture<List<String>> putProducts(Collection<Product> products) {
+        // The last product for each ID wins
+        Map<String, Product> productsById = new LinkedHashMap<>();
+        for (Product product : products) {
+            productsById.put(product.getId(), product);
+        }
+
+        List<CompletableFuture<String>> writes = new ArrayList<>(productsById.size());
+        for (Product product : productsById.values()) {
+            writes.add(update(product, null).handle((ignored, throwable) -> {
+                if (throwable == null) {
+                    return null;
+                }
+                if (Failures.classify(Failures.unwrap(throwable)) == Failures.Kind.THROTTLED) {
+                    return product.getId();
+                }
+                throw throwable instanceof CompletionException
+                        ? (CompletionException) throwable
+                        : new CompletionException(throwable);
+            }));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<String> unprocessedIds = new ArrayList<>();
+                    for (CompletableFuture<String> write : writes) {
+                        if (write.join() != null) {
+                            unprocessedIds.add(write.join());
+                        }
+                    }
+
+                    if (!unprocessedIds.isEmpty()) {
+                        logger.warn("updateItem was throttled for {} item(s)", unprocessedIds.size());
+                    }
+                    return unprocessedIds;
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteProducts(Collection<String> ids) {
+        List<WriteRequest> writeRequests = new ArrayList<>(ids.size());
+        for (String id : new LinkedHashSet<>(ids)) {
+            writeRequests.add(WriteRequest.builder()
+                    .deleteRequest(DeleteRequest.builder().key(ProductMapper.productKey(id)).build())
+                    .build());
+        }
+
+        return batchWriteAll(writeRequests);
+    }
+
+    /**
+     * Streams every product in the table using a parallel segmented scan, for full-catalogue exports.
+     * <p>
+     * The stream must be closed once consumed (or abandoned) so that no further scan requests are issued.
+     *
+     * @param totalSegments number of segments the table is split into
+     * @param maxInFlight   maximum number of scan requests outstanding at any time
+     */
+    public Stream<Product> scanAllProducts(int totalSegments, int maxInFlight) {
+        ParallelScan scan = new ParallelScan(dynamoDbClient.get(), PRODUCT_TABLE_NAME, totalSegments, maxInFlight);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(scan, Spliterator.NONNULL), false)
+                .onClose(scan::close);
+    }
+
+    /**
+     * Adds the {@value ProductMapper#SHARD} and {@value ProductMapper#NAME_KEY} attributes to the products written
+     * before the search indexes existed, which the indexes leave out, so that searches find them. A parallel scan
+     * picks out the items missing either attribute, and each is updated unless its name has changed in the meantime,
+     * in which case the write that changed it has set both. The version is left as it is: the product does not change.
+     * <p>
+     * Meant to be run once after the indexes are deployed. The shared client does not retry, so a throttled update
+     * fails the run, which can then be started again to pick up the products still left.
+     *
+     * @param totalSegments number of segments the table is split into
+     * @param maxInFlight   maximum number of scan requests, and of update requests, outstanding at any time
+     * @return the number of products updated
+     */
+    public long backfillSearchAttributes(int totalSegments, int maxInFlight) {
+        Map<String, String> names = Map.of("#shard", ProductMapper.SHARD, "#nameKey", ProductMapper.NAME_KEY);
+        Deque<CompletableFuture<Boolean>> updates = new ArrayDeque<>();
+        long updated = 0;
+        try (ParallelScan scan = new ParallelScan(dynamoDbClient.get(), PRODUCT_TABLE_NAME, totalSegments,
+                maxInFlight, "attribute_not_exists(#shard) OR attribute_not_exists(#nameKey)", names)) {
+            while (scan.hasNext()) {
+                if (updates.size() >= maxInFlight) {
+                    updated += updates.poll().join() ? 1 : 0;
+                }
+                updates.add(addSearchAttributes(scan.next()));
+            }
+        }
+        while (!updates.isEmpty()) {
+            updated += updates.poll().join() ? 1 : 0;
+        }
+
+        logger.info("Added search attributes to {} product(s)", updated);
+        return updated;
+    }
+
+    /**
+     * @return whether the product was updated, rather than renamed or deleted since it was read
+     */
+    private CompletableFuture<Boolean> addSearchAttributes(Product product) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":name", AttributeValue.builder().s(product.getName()).build());
+        values.put(":shard", ProductMapper.shard(product.getId()));
+        values.put(":nameKey", ProductMapper.nameKey(product.getName()));
+
+        return dynamoDbClient.get().updateItem(UpdateItemRequest.builder()
+                        .tableName(PRODUCT_TABLE_NAME)
+                        .key(ProductMapper.productKey(product.getId()))
+                        .updateExpression("SET #shard = :shard, #nameKey = :nameKey")
+                        .conditionExpression("#name = :name")
+                        .expressionAttributeNames(Map.of("#name", ProductMapper.NAME, "#shard", ProductMapper.SHARD,
+                                "#nameKey", ProductMapper.NAME_KEY))
+                        .expressionAttributeValues(values)
+                        .build())
+                .handle((updateItemResponse, throwable) -> {
+                    if (throwable == null) {
+                        return true;
+                    }
+                    if (Failures.unwrap(throwable) instanceof ConditionalCheckFailedException) {
+                        return false;
+                    }
+                    throw throwable instanceof CompletionException
+                            ? (CompletionException) throwable
+                            : new CompletionException(throwable);
+                });
+    }
+
+    /**
+     * Describes the table so that the shared client resolves the endpoint, loads credentials and opens a TLS
+     * connection, which the first invocation can then reuse instead of paying for them itself. Meant to be called
+     * during init. {@code DescribeTable} is allowed by both the read and the write grants, and consumes no capacity.
+     * <p>
+     * Failures are logged and otherwise ignored, the first request then connects as it would have anyway.
+     */
+    public void warmUp(long timeoutMillis) {
+        DescribeTableRequest request = DescribeTableRequest.builder().tableName(PRODUCT_TABLE_NAME).build();
+        awaitQuietly("warm-up", timeoutMillis, dynamoDbClient.get().describeTable(request));
+    }
+
+    /**
+     * Runs the code of a product read and write without changing the table: a product is mapped to an item and back,
+     * and a product that does not exist is read, which loads and initializes the SDK's request marshalling, signing and
+     * response parsing. Meant to be called before a snapshot is taken, so that restored execution environments do not
+     * pay for the class loading on their first request. Failures are logged and otherwise ignored.
+     */
+    public void prime(long timeoutMillis) {
+        Product product = new Product(PRIMING_ID, "Priming", BigDecimal.ONE);
+        ProductMapper.productFromDynamoDB(ProductMapper.productToDynamoDb(product));
+        awaitQuietly("priming", timeoutMillis, getProduct(PRIMING_ID));
+    }
+
+    private static void awaitQuietly(String operation, long timeoutMillis, CompletableFuture<?> future) {
+        long start = System.nanoTime();
+        try {
+            future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            logger.info("DynamoDB {} completed in {} ms", operation, (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("DynamoDB {} failed after {} ms: {}", operation, (System.nanoTime() - start) / 1_000_000,
+                    e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private CompletableFuture<List<String>> batchWriteAll(List<WriteRequest> writeRequests) {
+        List<CompletableFuture<List<WriteRequest>>> chunks = new ArrayList<>();
+        for (List<WriteRequest> chunk : chunk(writeRequests, BATCH_WRITE_CHUNK_SIZE)) {
+            chunks.add(batchWrite(chunk, 1));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<String> unprocessedIds = new ArrayList<>();
+                    for (CompletableFuture<List<WriteRequest>> chunk : chunks) {
+                        for (WriteRequest writeRequest : chunk.join()) {
+                            unprocessedIds.add(ProductMapper.idFromKey(writeRequest.deleteRequest().key()));
+                        }
+                    }
+
+                    if (!unprocessedIds.isEmpty()) {
+                        logger.warn("batchWriteItem left {} item(s) unprocessed", unprocessedIds.size());
+                    }
+                    return unprocessedIds;
+                });
+    }
+
+    private CompletableFuture<List<Map<String, AttributeValue>>> batchGet(Map<String, KeysAndAttributes> requestItems,
+                                                                       int attempt) {
+        return dynamoDbClient.get().batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(requestItems)
+                        .build())
+                .thenCompose(response -> {
+                    List<Map<String, AttributeValue>> items = new ArrayList<>(
+                            response.responses().getOrDefault(PRODUCT_TABLE_NAME, Collections.emptyList()));
+
+                    if (!response.hasUnprocessedKeys() || response.unprocessedKeys().isEmpty()) {
+                        return CompletableFuture.completedFuture(items);
+                    }
+                    if (attempt >= MAX_BATCH_ATTEMPTS) {
+                        // Keys are left unprocessed when the table is short of read capacity
+                        return CompletableFuture.failedFuture(new StoreUnavailableException(
+                                "batchGetItem left keys unprocessed after " + attempt + " attempts",
+                                BATCH_BACKOFF_MAX_MILLIS));
+                    }
+
+                    return afterBackoff(attempt)
+                            .thenCompose(ignored -> batchGet(response.unprocessedKeys(), attempt + 1))
+                            .thenApply(retried -> {
+                                items.addAll(retried);
+                                return items;
+                            });
+                });
+    }
+
+    private CompletableFuture<List<WriteRequest>> batchWrite(List<WriteRequest> writeRequests, int attempt) {
+        return dynamoDbClient.get().batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(PRODUCT_TABLE_NAME, writeRequests))
+                        .build())
+                .thenCompose(response -> {
+                    List<WriteRequest> unprocessed = response.hasUnprocessedItems()
+                            ? response.unprocessedItems().getOrDefault(PRODUCT_TABLE_NAME, Collections.emptyList())
+                            : Collections.emptyList();
+
+                    if (unprocessed.isEmpty() || attempt >= MAX_BATCH_ATTEMPTS) {
+                        return CompletableFuture.completedFuture(unprocessed);
+                    }
+
+                    return afterBackoff(attempt).thenCompose(ignored -> batchWrite(unprocessed, attempt + 1));
+                });
+    }
+
+    private static CompletableFuture<Void> afterBackoff(int attempt) {
+        long ceiling = Math.min(BATCH_BACKOFF_MAX_MILLIS, BATCH_BACKOFF_BASE_MILLIS << attempt);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private static <T> List<List<T>> chunk(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + size)));
+        }
+        return chunks;
+    }
+}
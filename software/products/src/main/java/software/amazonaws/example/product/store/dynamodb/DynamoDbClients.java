@@ -0,0 +1,160 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import com.amazonaws.xray.interceptors.TracingInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.SdkSystemSetting;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.time.Duration;
+
+/**
+ * Holds the single {@link DynamoDbAsyncClient} shared by every store in the process, so that handlers do not each
+ * pay for building a client, CRT HTTP client and X-Ray interceptor during init.
+ * <p>
+ * The client reads credentials and region from the environment and owns native CRT resources, so it cannot be created
+ * at image build time. It is created lazily, on first use, which happens while the handler is constructed in the
+ * Lambda init phase.
+ * <p>
+ * The CRT HTTP client's connection pool is configured with environment variables, see {@link #httpClientBuilder()}.
+ */
+public final class DynamoDbClients {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDbClients.class);
+
+    static final String MAX_CONCURRENCY_VARIABLE = "DYNAMODB_MAX_CONCURRENCY";
+    static final String CONNECTION_TIMEOUT_VARIABLE = "DYNAMODB_CONNECTION_TIMEOUT_MS";
+    static final String CONNECTION_MAX_IDLE_VARIABLE = "DYNAMODB_CONNECTION_MAX_IDLE_MS";
+    static final String TCP_KEEP_ALIVE_INTERVAL_VARIABLE = "DYNAMODB_TCP_KEEP_ALIVE_INTERVAL_MS";
+    static final String TCP_KEEP_ALIVE_TIMEOUT_VARIABLE = "DYNAMODB_TCP_KEEP_ALIVE_TIMEOUT_MS";
+
+    // Batch calls and parallel scans fan out; one execution environment never needs more connections than this
+    private static final long DEFAULT_MAX_CONCURRENCY = 50;
+    // DynamoDB is in the same region, so a connection that takes longer than this is better retried
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 1000;
+    private static final long DEFAULT_CONNECTION_MAX_IDLE_MILLIS = 60_000;
+    private static final long DEFAULT_TCP_KEEP_ALIVE_INTERVAL_MILLIS = 30_000;
+    private static final long DEFAULT_TCP_KEEP_ALIVE_TIMEOUT_MILLIS = 5_000;
+
+    private static volatile DynamoDbAsyncClient shared;
+
+    private DynamoDbClients() {
+    }
+
+    public static DynamoDbAsyncClient shared() {
+        DynamoDbAsyncClient client = shared;
+        if (client == null) {
+            synchronized (DynamoDbClients.class) {
+                client = shared;
+                if (client == null) {
+                    client = create();
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Closes the shared client and its connections, if it has been created; the next call to {@link #shared()} creates
+     * a new one. Connections cannot be carried across a snapshot, see {@link DynamoDbPriming}.
+     */
+    public static synchronized void close() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    private static DynamoDbAsyncClient create() {
+        long start = System.nanoTime();
+        DynamoDbAsyncClient client = DynamoDbAsyncClient.builder()
+                .credentialsProvider(credentialsProvider())
+                .region(Region.of(System.getenv(SdkSystemSetting.AWS_REGION.environmentVariable())))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new TracingInterceptor())
+                        // Retries are made by ResilientAsyncProductStore, which knows the invocation's deadline, and
+                        // by ParallelScan for each segment
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .build())
+                .httpClientBuilder(httpClientBuilder())
+                .build();
+        logger.info("DynamoDB client created in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return client;
+    }
+
+    /**
+     * The custom runtime of the native binary is given credentials in environment variables, so only that provider is
+     * built into the image. SnapStart functions on the Java runtime get theirs from the container credentials endpoint
+     * instead, which the default chain covers. A new chain is built with every client, so that a client created after a
+     * restore does not use credentials cached before the snapshot.
+     */
+    private static AwsCredentialsProvider credentialsProvider() {
+        if ("runtime".equals(System.getProperty("org.graalvm.nativeimage.imagecode"))) {
+            return EnvironmentVariableCredentialsProvider.create();
+        }
+        return DefaultCredentialsProvider.builder().build();
+    }
+
+    /**
+     * Configures the CRT HTTP client from these environment variables:
+     * <ul>
+     *     <li>{@value #MAX_CONCURRENCY_VARIABLE}, the maximum number of connections, 50 by default</li>
+     *     <li>{@value #CONNECTION_TIMEOUT_VARIABLE}, how long opening a connection may take, 1000 by default</li>
+     *     <li>{@value #CONNECTION_MAX_IDLE_VARIABLE}, how long an unused connection is kept, 60000 by default</li>
+     *     <li>{@value #TCP_KEEP_ALIVE_INTERVAL_VARIABLE} and {@value #TCP_KEEP_ALIVE_TIMEOUT_VARIABLE}, how often idle
+     *     connections are probed and how long a probe may take, 30000 and 5000 by default; an interval of 0 turns
+     *     keep-alive off</li>
+     * </ul>
+     */
+    static AwsCrtAsyncHttpClient.Builder httpClientBuilder() {
+        long maxConcurrency = longFromEnvironment(MAX_CONCURRENCY_VARIABLE, DEFAULT_MAX_CONCURRENCY);
+        AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder()
+                .maxConcurrency((int) Math.max(1, maxConcurrency))
+                .connectionTimeout(Duration.ofMillis(
+                        longFromEnvironment(CONNECTION_TIMEOUT_VARIABLE, DEFAULT_CONNECTION_TIMEOUT_MILLIS)))
+                .connectionMaxIdleTime(Duration.ofMillis(
+                        longFromEnvironment(CONNECTION_MAX_IDLE_VARIABLE, DEFAULT_CONNECTION_MAX_IDLE_MILLIS)));
+
+        long keepAliveIntervalMillis =
+                longFromEnvironment(TCP_KEEP_ALIVE_INTERVAL_VARIABLE, DEFAULT_TCP_KEEP_ALIVE_INTERVAL_MILLIS);
+        long keepAliveTimeoutMillis =
+                longFromEnvironment(TCP_KEEP_ALIVE_TIMEOUT_VARIABLE, DEFAULT_TCP_KEEP_ALIVE_TIMEOUT_MILLIS);
+        if (keepAliveIntervalMillis > 0) {
+            // Keeps NAT and load balancer state for idle connections alive between invocations
+            builder.tcpKeepAliveConfiguration(keepAlive -> keepAlive
+                    .keepAliveInterval(Duration.ofMillis(keepAliveIntervalMillis))
+                    .keepAliveTimeout(Duration.ofMillis(keepAliveTimeoutMillis)));
+        }
+        return builder;
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        long parsed;
+        try {
+            parsed = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            parsed = -1;
+        }
+        if (parsed < 0) {
+            logger.warn("Ignoring invalid value '{}' for {}", value, name);
+            return defaultValue;
+        }
+        return parsed;
+    }
+}
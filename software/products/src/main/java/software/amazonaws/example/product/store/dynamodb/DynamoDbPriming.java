@@ -0,0 +1,50 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+/**
+ * Prepares the DynamoDB store for Lambda SnapStart, or any other CRaC checkpoint.
+ * <p>
+ * Before the checkpoint the store is primed, see {@link DynamoDbAsyncProductStore#prime(long)}, and the shared client
+ * is closed: connections opened before a snapshot would be shared by every execution environment restored from it, and
+ * the server has long closed them by then. After the restore a new client is created and connected, see
+ * {@link DynamoDbAsyncProductStore#warmUp(long)}, so the first request finds an open connection as after a cold start.
+ * <p>
+ * Outside a checkpointing JVM, including the native image, registering does nothing.
+ */
+public final class DynamoDbPriming implements Resource {
+
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    // CRaC only keeps weak references to registered resources
+    private static DynamoDbPriming registered;
+
+    private final DynamoDbAsyncProductStore store;
+
+    private DynamoDbPriming(DynamoDbAsyncProductStore store) {
+        this.store = store;
+    }
+
+    public static synchronized void register(DynamoDbAsyncProductStore store) {
+        if (registered == null) {
+            registered = new DynamoDbPriming(store);
+            Core.getGlobalContext().register(registered);
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        store.prime(TIMEOUT_MILLIS);
+        DynamoDbClients.close();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        store.warmUp(TIMEOUT_MILLIS);
+    }
+}
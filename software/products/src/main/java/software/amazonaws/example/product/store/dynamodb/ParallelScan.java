@@ -0,0 +1,228 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.store.resilience.Failures;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a whole table with a parallel, segmented scan.
+ * <p>
+ * Pages are only requested while the consumer keeps up: at most {@code maxInFlight} scan requests are outstanding,
+ * and no new request is issued while {@code maxInFlight} pages are waiting to be consumed. Memory use is therefore
+ * bounded by roughly {@code 2 * maxInFlight} pages (1 MB each at most) regardless of the table size.
+ * <p>
+ * The shared client does not retry, see {@link DynamoDbClients}, and a full table scan is what gets throttled, so a
+ * segment whose page is throttled or fails transiently is requested again from where it stopped, after an exponential
+ * backoff with full jitter. Only a permanent failure, or a segment that keeps failing, fails the scan.
+ * <p>
+ * Products are returned in no particular order. Instances are not thread-safe and must be consumed by a single thread.
+ */
+class ParallelScan implements Iterator<Product>, AutoCloseable {
+
+    static final int MAX_SEGMENT_ATTEMPTS = 8;
+    private static final long BACKOFF_BASE_MILLIS = 100;
+    private static final long BACKOFF_MAX_MILLIS = 5000;
+
+    private final DynamoDbAsyncClient dynamoDbClient;
+    private final String tableName;
+    private final int maxInFlight;
+    private final String filterExpression;
+    private final Map<String, String> expressionAttributeNames;
+
+    private final Object lock = new Object();
+    private final Deque<Segment> readySegments = new ArrayDeque<>();
+    private final BlockingQueue<Page> completedPages = new LinkedBlockingQueue<>();
+    private int inFlight;
+    private int bufferedPages;
+    private int remainingSegments;
+    private boolean closed;
+
+    private Iterator<Map<String, AttributeValue>> currentPage = Collections.emptyIterator();
+
+    ParallelScan(DynamoDbAsyncClient dynamoDbClient, String tableName, int totalSegments, int maxInFlight) {
+        this(dynamoDbClient, tableName, totalSegments, maxInFlight, null, null);
+    }
+
+    /**
+     * @param filterExpression which items to return, or {@code null} for all of them; the others are still read
+     */
+    ParallelScan(DynamoDbAsyncClient dynamoDbClient, String tableName, int totalSegments, int maxInFlight,
+                 String filterExpression, Map<String, String> expressionAttributeNames) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("totalSegments must be at least 1");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.maxInFlight = maxInFlight;
+        this.filterExpression = filterExpression;
+        this.expressionAttributeNames = expressionAttributeNames;
+        this.remainingSegments = totalSegments;
+
+        for (int segment = 0; segment < totalSegments; segment++) {
+            readySegments.add(new Segment(segment, totalSegments));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            synchronized (lock) {
+                if (closed || (remainingSegments == 0 && inFlight == 0 && completedPages.isEmpty())) {
+                    return false;
+                }
+                dispatch();
+            }
+
+            Page page;
+            try {
+                page = completedPages.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for scan results", e);
+            }
+
+            synchronized (lock) {
+                bufferedPages--;
+            }
+
+            if (page.error != null) {
+                close();
+                throw new CompletionException("Parallel scan of " + tableName + " failed", page.error);
+            }
+            currentPage = page.items.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Product next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ProductMapper.productFromDynamoDB(currentPage.next());
+    }
+
+    /**
+     * Stops issuing further scan requests. Requests that are already in flight are left to complete and their results
+     * are discarded.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            readySegments.clear();
+            completedPages.clear();
+        }
+    }
+
+    // Must be called while holding the lock.
+    private void dispatch() {
+        while (!closed && !readySegments.isEmpty() && inFlight < maxInFlight && inFlight + bufferedPages < 2 * maxInFlight) {
+            Segment segment = readySegments.poll();
+            inFlight++;
+
+            dynamoDbClient.scan(ScanRequest.builder()
+                            .tableName(tableName)
+                            .segment(segment.segment)
+                            .totalSegments(segment.totalSegments)
+                            .exclusiveStartKey(segment.exclusiveStartKey)
+                            .filterExpression(filterExpression)
+                            .expressionAttributeNames(expressionAttributeNames)
+                            .build())
+                    .whenComplete((response, error) -> {
+                        synchronized (lock) {
+                            inFlight--;
+                            if (closed) {
+                                return;
+                            }
+
+                            if (error != null && retry(segment, error)) {
+                                return;
+                            }
+
+                            bufferedPages++;
+                            if (error != null) {
+                                completedPages.add(new Page(Collections.emptyList(), error));
+                                return;
+                            }
+
+                            segment.attempts = 0;
+                            completedPages.add(new Page(response.items(), null));
+                            if (response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()) {
+                                segment.exclusiveStartKey = response.lastEvaluatedKey();
+                                readySegments.add(segment);
+                            } else {
+                                remainingSegments--;
+                            }
+                        }
+                    });
+        }
+    }
+
+    // Must be called while holding the lock.
+    private boolean retry(Segment segment, Throwable error) {
+        if (Failures.classify(Failures.unwrap(error)) == Failures.Kind.PERMANENT
+                || ++segment.attempts >= MAX_SEGMENT_ATTEMPTS) {
+            return false;
+        }
+
+        long capMillis = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << (segment.attempts - 1));
+        long delayMillis = ThreadLocalRandom.current().nextLong(capMillis + 1);
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            synchronized (lock) {
+                if (!closed) {
+                    // From the same exclusiveStartKey; the consumer may be waiting for this segment's page
+                    readySegments.add(segment);
+                    dispatch();
+                }
+            }
+        });
+        return true;
+    }
+
+    private static final class Segment {
+        private final int segment;
+        private final int totalSegments;
+        private Map<String, AttributeValue> exclusiveStartKey;
+        private int attempts;
+
+        private Segment(int segment, int totalSegments) {
+            this.segment = segment;
+            this.totalSegments = totalSegments;
+        }
+    }
+
+    private static final class Page {
+        private final List<Map<String, AttributeValue>> items;
+        private final Throwable error;
+
+        private Page(List<Map<String, AttributeValue>> items, Throwable error) {
+            this.items = items;
+            this.error = error;
+        }
+    }
+}
@@ -3,24 +3,67 @@
 
 package software.amazonaws.example.product.store.dynamodb;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class ProductMapper {
 
-    private static final String PK = "PK";
-    private static final String NAME = "name";
-    private static final String PRICE = "price";
+    static final String PK = "PK";
+    static final String NAME = "name";
+    static final String PRICE = "price";
+    static final String VERSION = "version";
+    static final String SHARD = "shard";
+    static final String NAME_KEY = "nameKey";
+
+    /**
+     * Index on {@value #SHARD} and {@value #PRICE}, for searching by price.
+     */
+    static final String PRICE_INDEX = "PriceIndex";
+
+    /**
+     * Index on {@value #SHARD} and {@value #NAME_KEY}, for searching by name prefix.
+     */
+    static final String NAME_INDEX = "NameIndex";
+
+    /**
+     * Number of partitions of the search indexes. Products are spread over them by ID so that a popular price or name
+     * does not all land in one partition, at the cost of one query per shard per search.
+     */
+    static final int SHARD_COUNT = 4;
+
+    private static final JsonFactory CURSOR_FACTORY = new JsonFactory();
 
     public static Product productFromDynamoDB(Map<String, AttributeValue> items) {
         Product product = new Product();
         product.setId(items.get(PK).s());
-        product.setName(items.get(NAME).s());
-        product.setPrice(new BigDecimal(items.get(PRICE).n()));
+        // Attributes left out by a projection stay null
+        AttributeValue name = items.get(NAME);
+        if (name != null) {
+            product.setName(name.s());
+        }
+        AttributeValue price = items.get(PRICE);
+        if (price != null) {
+            product.setPrice(new BigDecimal(price.n()));
+        }
+        AttributeValue version = items.get(VERSION);
+        if (version != null) {
+            product.setVersion(Long.parseLong(version.n()));
+        }
 
         return product;
     }
@@ -30,7 +73,150 @@ public class ProductMapper {
         item.put(PK, AttributeValue.builder().s(product.getId()).build());
         item.put(NAME, AttributeValue.builder().s(product.getName()).build());
         item.put(PRICE, AttributeValue.builder().n(product.getPrice().toString()).build());
+        item.put(SHARD, shard(product.getId()));
+        item.put(NAME_KEY, nameKey(product.getName()));
 
         return item;
     }
+
+    /**
+     * @return the search index shard of a product
+     */
+    static AttributeValue shard(String id) {
+        return AttributeValue.builder().s(String.valueOf(Math.floorMod(id.hashCode(), SHARD_COUNT))).build();
+    }
+
+    /**
+     * @return the search index sort key of a product's name
+     */
+    static AttributeValue nameKey(String name) {
+        return AttributeValue.builder().s(ProductQuery.nameKey(name)).build();
+    }
+
+    /**
+     * Builds the {@code ProjectionExpression} that reads the given fields. The key is always read, it is needed for the
+     * product's ID and for paging.
+     */
+    public static String projectionExpression(Set<ProductField> fields) {
+        StringBuilder expression = new StringBuilder("#" + PK);
+        for (ProductField field : fields) {
+            if (field != ProductField.ID) {
+                expression.append(", #").append(attributeName(field));
+            }
+        }
+        return expression.toString();
+    }
+
+    /**
+     * @return the {@code ExpressionAttributeNames} used by {@link #projectionExpression(Set)}, which are needed because
+     * {@code name} is a reserved word
+     */
+    public static Map<String, String> projectionAttributeNames(Set<ProductField> fields) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#" + PK, PK);
+        for (ProductField field : fields) {
+            if (field != ProductField.ID) {
+                names.put("#" + attributeName(field), attributeName(field));
+            }
+        }
+        return names;
+    }
+
+    private static String attributeName(ProductField field) {
+        return switch (field) {
+            case ID -> PK;
+            case NAME -> NAME;
+            case PRICE -> PRICE;
+            case VERSION -> VERSION;
+        };
+    }
+
+    public static Map<String, AttributeValue> productKey(String id) {
+        return Map.of(PK, AttributeValue.builder().s(id).build());
+    }
+
+    public static String idFromKey(Map<String, AttributeValue> key) {
+        return key.get(PK).s();
+    }
+
+    /**
+     * Encodes a {@code LastEvaluatedKey} as an opaque, URL-safe cursor. Only string and number key attributes are
+     * supported, which covers every key schema used by the Products table.
+     */
+    public static String cursorFromKey(Map<String, AttributeValue> key) {
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = CURSOR_FACTORY.createGenerator(json)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, AttributeValue> attribute : key.entrySet()) {
+                AttributeValue value = attribute.getValue();
+                generator.writeObjectFieldStart(attribute.getKey());
+                if (value.s() != null) {
+                    generator.writeStringField("S", value.s());
+                } else if (value.n() != null) {
+                    generator.writeStringField("N", value.n());
+                } else {
+                    throw new IllegalStateException("Unsupported key attribute type for " + attribute.getKey());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toByteArray());
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #cursorFromKey(Map)} back into an {@code ExclusiveStartKey}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Map<String, AttributeValue> keyFromCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            try (JsonParser parser = CURSOR_FACTORY.createParser(json)) {
+                expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+                Map<String, AttributeValue> key = new HashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    expect(parser.nextToken(), JsonToken.START_OBJECT);
+                    expect(parser.nextToken(), JsonToken.FIELD_NAME);
+                    String type = parser.getCurrentName();
+                    expect(parser.nextToken(), JsonToken.VALUE_STRING);
+                    if ("S".equals(type)) {
+                        key.put(name, AttributeValue.builder().s(parser.getText()).build());
+                    } else if ("N".equals(type)) {
+                        key.put(name, AttributeValue.builder().n(parser.getText()).build());
+                    } else {
+                        throw new IllegalArgumentException("Invalid cursor");
+                    }
+                    expect(parser.nextToken(), JsonToken.END_OBJECT);
+                }
+
+                if (key.isEmpty() || parser.nextToken() != null) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return key;
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,228 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Searches products with a {@code Query} on one of the search indexes, whose partition key is the product's
+ * {@linkplain ProductMapper#SHARD shard}. Every shard is queried concurrently and the results are merged into a single
+ * page, sorted by price, or by name when a name prefix is given.
+ * <p>
+ * A shard's results can only be merged up to the point that shard has been read to, so a page contains only the
+ * products that sort before the end of every unfinished shard's results. The cursor records, per shard, where the next
+ * query starts, or that the shard is finished.
+ */
+class ShardedQuery {
+
+    private static final String NOT_STARTED = "";
+    private static final String FINISHED = "-";
+    private static final String SEPARATOR = ".";
+
+    private final DynamoDbAsyncClient dynamoDbClient;
+    private final String tableName;
+    private final ProductQuery query;
+    private final boolean byName;
+    private final String sortAttribute;
+
+    ShardedQuery(DynamoDbAsyncClient dynamoDbClient, String tableName, ProductQuery query) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.query = query;
+        this.byName = query.getNamePrefix() != null;
+        this.sortAttribute = byName ? ProductMapper.NAME_KEY : ProductMapper.PRICE;
+    }
+
+    CompletableFuture<Products> execute(int limit, String cursor) {
+        String[] starts;
+        try {
+            starts = parseCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        List<CompletableFuture<QueryResponse>> responses = new ArrayList<>(ProductMapper.SHARD_COUNT);
+        for (int shard = 0; shard < ProductMapper.SHARD_COUNT; shard++) {
+            responses.add(FINISHED.equals(starts[shard])
+                    ? CompletableFuture.completedFuture(null)
+                    : dynamoDbClient.query(request(shard, starts[shard], limit)));
+        }
+
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> merge(limit, starts, responses.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private Products merge(int limit, String[] starts, List<QueryResponse> responses) {
+        // Only items up to the end of the least advanced unfinished shard can be returned in order
+        AttributeValue frontier = null;
+        List<Candidate> candidates = new ArrayList<>();
+        for (int shard = 0; shard < responses.size(); shard++) {
+            QueryResponse response = responses.get(shard);
+            if (response == null) {
+                continue;
+            }
+            if (response.hasLastEvaluatedKey()) {
+                AttributeValue end = response.lastEvaluatedKey().get(sortAttribute);
+                if (frontier == null || compare(end, frontier) < 0) {
+                    frontier = end;
+                }
+            }
+            for (Map<String, AttributeValue> item : response.items()) {
+                candidates.add(new Candidate(shard, item));
+            }
+        }
+        candidates.sort(Comparator.<Candidate, AttributeValue>comparing(c -> c.item.get(sortAttribute), this::compare)
+                .thenComparing(c -> c.item.get(ProductMapper.PK).s()));
+
+        List<Product> page = new ArrayList<>(Math.min(limit, candidates.size()));
+        int[] consumed = new int[responses.size()];
+        Map<Integer, Map<String, AttributeValue>> lastConsumed = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            if (page.size() == limit
+                    || (frontier != null && compare(candidate.item.get(sortAttribute), frontier) > 0)) {
+                break;
+            }
+            page.add(ProductMapper.productFromDynamoDB(candidate.item));
+            consumed[candidate.shard]++;
+            lastConsumed.put(candidate.shard, candidate.item);
+        }
+
+        String[] next = new String[responses.size()];
+        boolean finished = true;
+        for (int shard = 0; shard < responses.size(); shard++) {
+            QueryResponse response = responses.get(shard);
+            if (response == null) {
+                next[shard] = FINISHED;
+            } else if (consumed[shard] == response.items().size()) {
+                next[shard] = response.hasLastEvaluatedKey()
+                        ? ProductMapper.cursorFromKey(response.lastEvaluatedKey())
+                        : FINISHED;
+            } else if (consumed[shard] == 0) {
+                next[shard] = starts[shard];
+            } else {
+                next[shard] = ProductMapper.cursorFromKey(indexKey(lastConsumed.get(shard)));
+            }
+            finished &= FINISHED.equals(next[shard]);
+        }
+
+        return new Products(page, finished ? null : String.join(SEPARATOR, next));
+    }
+
+    private QueryRequest request(int shard, String start, int limit) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#shard", ProductMapper.SHARD);
+        values.put(":shard", AttributeValue.builder().s(String.valueOf(shard)).build());
+
+        StringBuilder keyCondition = new StringBuilder("#shard = :shard");
+        String priceCondition = priceCondition(names, values);
+        String filter = null;
+        if (byName) {
+            names.put("#nameKey", ProductMapper.NAME_KEY);
+            values.put(":prefix", AttributeValue.builder().s(ProductQuery.nameKey(query.getNamePrefix())).build());
+            keyCondition.append(" AND begins_with(#nameKey, :prefix)");
+            filter = priceCondition;
+        } else if (priceCondition != null) {
+            keyCondition.append(" AND ").append(priceCondition);
+        }
+
+        return QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(byName ? ProductMapper.NAME_INDEX : ProductMapper.PRICE_INDEX)
+                .keyConditionExpression(keyCondition.toString())
+                .filterExpression(filter)
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .exclusiveStartKey(NOT_STARTED.equals(start) ? null : ProductMapper.keyFromCursor(start))
+                .limit(limit)
+                .build();
+    }
+
+    private String priceCondition(Map<String, String> names, Map<String, AttributeValue> values) {
+        BigDecimal min = query.getMinPrice();
+        BigDecimal max = query.getMaxPrice();
+        if (min == null && max == null) {
+            return null;
+        }
+
+        names.put("#price", ProductMapper.PRICE);
+        if (min != null) {
+            values.put(":min", AttributeValue.builder().n(min.toPlainString()).build());
+        }
+        if (max != null) {
+            values.put(":max", AttributeValue.builder().n(max.toPlainString()).build());
+        }
+        if (min != null && max != null) {
+            return "#price BETWEEN :min AND :max";
+        }
+        return min != null ? "#price >= :min" : "#price <= :max";
+    }
+
+    /**
+     * @return the key of an item in the index, which is where a query continues after it
+     */
+    private Map<String, AttributeValue> indexKey(Map<String, AttributeValue> item) {
+        return Map.of(
+                ProductMapper.PK, item.get(ProductMapper.PK),
+                ProductMapper.SHARD, item.get(ProductMapper.SHARD),
+                sortAttribute, item.get(sortAttribute));
+    }
+
+    /**
+     * Compares sort key values the way DynamoDB orders them: numbers by value and strings by their UTF-8 bytes.
+     */
+    private int compare(AttributeValue a, AttributeValue b) {
+        if (byName) {
+            return Arrays.compareUnsigned(a.s().getBytes(StandardCharsets.UTF_8), b.s().getBytes(StandardCharsets.UTF_8));
+        }
+        return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n()));
+    }
+
+    private static String[] parseCursor(String cursor) {
+        String[] starts = new String[ProductMapper.SHARD_COUNT];
+        if (cursor == null || cursor.isEmpty()) {
+            Arrays.fill(starts, NOT_STARTED);
+            return starts;
+        }
+
+        String[] parts = cursor.split("\\" + SEPARATOR, -1);
+        if (parts.length != ProductMapper.SHARD_COUNT) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        for (int shard = 0; shard < parts.length; shard++) {
+            if (!NOT_STARTED.equals(parts[shard]) && !FINISHED.equals(parts[shard])) {
+                // Validates the part; the key itself is decoded again when the request is built
+                ProductMapper.keyFromCursor(parts[shard]);
+            }
+            starts[shard] = parts[shard];
+        }
+        return starts;
+    }
+
+    private static final class Candidate {
+        private final int shard;
+        private final Map<String, AttributeValue> item;
+
+        Candidate(int shard, Map<String, AttributeValue> item) {
+            this.shard = shard;
+            this.item = item;
+        }
+    }
+}
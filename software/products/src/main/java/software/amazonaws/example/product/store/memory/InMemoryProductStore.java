@@ -0,0 +1,369 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.ProductVersionConflictException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link ProductStore} that keeps products in memory, for running the handlers, load tests and benchmarks without AWS.
+ * <p>
+ * Products are held in a {@link ConcurrentSkipListMap} ordered by ID, so listing pages through products in a stable
+ * order and stays consistent under concurrent writes. The cursor is the encoded ID of the last product on the page.
+ * Searches filter and sort every product, and page by offset.
+ * <p>
+ * Each {@link Operation} can be given a {@link Behaviour}: a fixed latency plus uniformly distributed jitter, and a
+ * probability of failing with an {@link InjectedFailureException}. Batch writes fail per item, like DynamoDB, and
+ * report the failed IDs as unprocessed; every other operation fails as a whole.
+ */
+public class InMemoryProductStore implements ProductStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductStore.class);
+
+    private static final String VARIABLE_PREFIX = "PRODUCT_STORE_";
+    private static final String LATENCY_MS = "LATENCY_MS";
+    private static final String JITTER_MS = "JITTER_MS";
+    private static final String FAILURE_RATE = "FAILURE_RATE";
+    private static final String SEED_COUNT = "SEED_COUNT";
+
+    public enum Operation {
+        GET, PUT, DELETE, LIST, SEARCH, BATCH_GET, BATCH_PUT, BATCH_DELETE
+    }
+
+    private final NavigableMap<String, Product> products = new ConcurrentSkipListMap<>();
+    private final Map<Operation, Behaviour> behaviours;
+
+    public InMemoryProductStore() {
+        this(Map.of());
+    }
+
+    /**
+     * @param behaviours latency and failure injection per operation; operations that are not listed behave normally
+     */
+    public InMemoryProductStore(Map<Operation, Behaviour> behaviours) {
+        this.behaviours = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            this.behaviours.put(operation, behaviours.getOrDefault(operation, Behaviour.NONE));
+        }
+    }
+
+    /**
+     * Creates a store configured by environment variables. {@code PRODUCT_STORE_LATENCY_MS},
+     * {@code PRODUCT_STORE_JITTER_MS} and {@code PRODUCT_STORE_FAILURE_RATE} apply to every operation, and can be
+     * overridden per operation, e.g. {@code PRODUCT_STORE_BATCH_PUT_FAILURE_RATE}. {@code PRODUCT_STORE_SEED_COUNT}
+     * fills the store with that many products, with IDs {@code 00000000}, {@code 00000001} and so on.
+     */
+    public static InMemoryProductStore fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    static InMemoryProductStore fromEnvironment(Map<String, String> environment) {
+        long latencyMs = longFromEnvironment(environment, VARIABLE_PREFIX + LATENCY_MS, 0);
+        long jitterMs = longFromEnvironment(environment, VARIABLE_PREFIX + JITTER_MS, 0);
+        double failureRate = doubleFromEnvironment(environment, VARIABLE_PREFIX + FAILURE_RATE, 0);
+
+        Map<Operation, Behaviour> behaviours = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            String prefix = VARIABLE_PREFIX + operation.name() + "_";
+            Behaviour behaviour = new Behaviour(
+                    longFromEnvironment(environment, prefix + LATENCY_MS, latencyMs),
+                    longFromEnvironment(environment, prefix + JITTER_MS, jitterMs),
+                    TimeUnit.MILLISECONDS,
+                    doubleFromEnvironment(environment, prefix + FAILURE_RATE, failureRate));
+            behaviours.put(operation, behaviour);
+            if (!behaviour.equals(Behaviour.NONE)) {
+                logger.info("In-memory product store {}: {}", operation, behaviour);
+            }
+        }
+        InMemoryProductStore store = new InMemoryProductStore(behaviours);
+        long seedCount = longFromEnvironment(environment, VARIABLE_PREFIX + SEED_COUNT, 0);
+        for (int i = 0; i < seedCount; i++) {
+            store.products.put(String.format("%08d", i),
+                    new Product(String.format("%08d", i), "Product " + i, BigDecimal.valueOf(100 + i, 2)));
+        }
+        return store;
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id) {
+        apply(Operation.GET);
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public void putProduct(Product product) {
+        apply(Operation.PUT);
+        Long expectedVersion = product.getVersion();
+        products.compute(product.getId(), (id, current) -> {
+            Long currentVersion = current == null ? Long.valueOf(0) : current.getVersion();
+            if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+                throw new ProductVersionConflictException(id, expectedVersion);
+            }
+            long version = currentVersion == null ? 1 : currentVersion + 1;
+            return new Product(id, product.getName(), product.getPrice(), version);
+        });
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        apply(Operation.DELETE);
+        products.remove(id);
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor) {
+        NavigableMap<String, Product> remaining = cursor == null || cursor.isEmpty()
+                ? products
+                : products.tailMap(idFromCursor(cursor), false);
+        apply(Operation.LIST);
+
+        List<Product> page = new ArrayList<>(Math.min(limit, 100));
+        for (Product product : remaining.values()) {
+            if (page.size() == limit) {
+                return new Products(page, cursorFromId(page.get(page.size() - 1).getId()));
+            }
+            page.add(product);
+        }
+        return new Products(page);
+    }
+
+    @Override
+    public Products searchProducts(ProductQuery query, int limit, String cursor) {
+        int offset = cursor == null || cursor.isEmpty() ? 0 : offsetFromCursor(cursor);
+        apply(Operation.SEARCH);
+
+        Comparator<Product> order = query.getNamePrefix() != null
+                ? Comparator.comparing(product -> ProductQuery.nameKey(product.getName()))
+                : Comparator.comparing(Product::getPrice);
+        List<Product> matches = products.values().stream()
+                .filter(query::matches)
+                .sorted(order.thenComparing(Product::getId))
+                .toList();
+
+        List<Product> page = matches.subList(Math.min(offset, matches.size()), Math.min(offset + limit, matches.size()));
+        return offset + limit < matches.size()
+                ? new Products(new ArrayList<>(page), cursorFromId(String.valueOf(offset + limit)))
+                : new Products(new ArrayList<>(page));
+    }
+
+    @Override
+    public Products getProducts(Collection<String> ids) {
+        apply(Operation.BATCH_GET);
+
+        List<Product> found = new ArrayList<>(ids.size());
+        for (String id : new LinkedHashSet<>(ids)) {
+            Product product = products.get(id);
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return new Products(found);
+    }
+
+    @Override
+    public List<String> putProducts(Collection<Product> batch) {
+        Behaviour behaviour = behaviours.get(Operation.BATCH_PUT);
+        behaviour.delay();
+
+        List<String> unprocessed = new ArrayList<>();
+        for (Product product : batch) {
+            if (behaviour.fails()) {
+                unprocessed.add(product.getId());
+            } else {
+                // Unconditional, but still moves the version forward, as a single write does
+                products.compute(product.getId(), (id, current) -> {
+                    long version = current == null || current.getVersion() == null ? 1 : current.getVersion() + 1;
+                    return new Product(id, product.getName(), product.getPrice(), version);
+                });
+            }
+        }
+        return unprocessed;
+    }
+
+    @Override
+    public List<String> deleteProducts(Collection<String> ids) {
+        Behaviour behaviour = behaviours.get(Operation.BATCH_DELETE);
+        behaviour.delay();
+
+        List<String> unprocessed = new ArrayList<>();
+        for (String id : ids) {
+            if (behaviour.fails()) {
+                unprocessed.add(id);
+            } else {
+                products.remove(id);
+            }
+        }
+        return unprocessed;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    private void apply(Operation operation) {
+        Behaviour behaviour = behaviours.get(operation);
+        behaviour.delay();
+        if (behaviour.fails()) {
+            throw new InjectedFailureException(operation);
+        }
+    }
+
+    private static String cursorFromId(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String idFromCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static int offsetFromCursor(String cursor) {
+        try {
+            int offset = Integer.parseInt(idFromCursor(cursor));
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static long longFromEnvironment(Map<String, String> environment, String name, long defaultValue) {
+        String value = environment.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid value '{}' for {}", value, name);
+            return defaultValue;
+        }
+    }
+
+    private static double doubleFromEnvironment(Map<String, String> environment, String name, double defaultValue) {
+        String value = environment.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid value '{}' for {}", value, name);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Simulated latency and failure rate of one operation.
+     */
+    public static final class Behaviour {
+
+        public static final Behaviour NONE = new Behaviour(0, 0, TimeUnit.MILLISECONDS, 0);
+
+        private final long latencyNanos;
+        private final long jitterNanos;
+        private final double failureRate;
+
+        /**
+         * @param latency     fixed delay added to every call
+         * @param jitter      upper bound of a uniformly distributed random delay added on top of {@code latency}
+         * @param failureRate probability between 0 and 1 that a call, or an item of a batch write, fails
+         */
+        public Behaviour(long latency, long jitter, TimeUnit unit, double failureRate) {
+            if (latency < 0 || jitter < 0) {
+                throw new IllegalArgumentException("latency and jitter must not be negative");
+            }
+            if (failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("failureRate must be between 0 and 1");
+            }
+
+            this.latencyNanos = unit.toNanos(latency);
+            this.jitterNanos = unit.toNanos(jitter);
+            this.failureRate = failureRate;
+        }
+
+        void delay() {
+            long nanos = latencyNanos;
+            if (jitterNanos > 0) {
+                nanos += ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+            }
+            // parkNanos rather than sleep, so that a virtual thread unmounts instead of pinning its carrier
+            long deadline = System.nanoTime() + nanos;
+            while (nanos > 0) {
+                LockSupport.parkNanos(nanos);
+                nanos = deadline - System.nanoTime();
+            }
+        }
+
+        boolean fails() {
+            return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Behaviour)) {
+                return false;
+            }
+            Behaviour other = (Behaviour) o;
+            return latencyNanos == other.latencyNanos && jitterNanos == other.jitterNanos
+                    && Double.compare(failureRate, other.failureRate) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(latencyNanos) * 31 * 31 + Long.hashCode(jitterNanos) * 31 + Double.hashCode(failureRate);
+        }
+
+        @Override
+        public String toString() {
+            return "Behaviour{" +
+                    "latencyMs=" + TimeUnit.NANOSECONDS.toMillis(latencyNanos) +
+                    ", jitterMs=" + TimeUnit.NANOSECONDS.toMillis(jitterNanos) +
+                    ", failureRate=" + failureRate +
+                    '}';
+        }
+    }
+
+    /**
+     * Thrown when an operation fails because of its configured failure rate.
+     */
+    public static class InjectedFailureException extends RuntimeException {
+
+        public InjectedFailureException(Operation operation) {
+            super("Injected failure for " + operation);
+        }
+    }
+}
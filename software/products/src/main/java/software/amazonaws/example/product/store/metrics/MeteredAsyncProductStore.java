@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.metrics;
+
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Adds the time from every call to another {@link AsyncProductStore} until its future completes to the invocation's
+ * {@link InvocationMetrics#STORE_TIME}. Concurrent calls are added up, so the store time can exceed the handler time.
+ */
+public class MeteredAsyncProductStore implements AsyncProductStore {
+
+    private final AsyncProductStore delegate;
+
+    public MeteredAsyncProductStore(AsyncProductStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id) {
+        return time(() -> delegate.getProduct(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        return time(() -> delegate.getProduct(id, fields));
+    }
+
+    @Override
+    public CompletableFuture<Void> putProduct(Product product) {
+        return time(() -> delegate.putProduct(product));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProduct(String id) {
+        return time(() -> delegate.deleteProduct(id));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor) {
+        return time(() -> delegate.getAllProduct(limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return time(() -> delegate.getAllProduct(limit, cursor, fields));
+    }
+
+    @Override
+    public CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor) {
+        return time(() -> delegate.searchProducts(query, limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getProducts(Collection<String> ids) {
+        return time(() -> delegate.getProducts(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> putProducts(Collection<Product> products) {
+        return time(() -> delegate.putProducts(products));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteProducts(Collection<String> ids) {
+        return time(() -> delegate.deleteProducts(ids));
+    }
+
+    private static <T> CompletableFuture<T> time(Supplier<CompletableFuture<T>> call) {
+        // Looked up here because the future may complete on an SDK thread
+        InvocationMetrics metrics = InvocationMetrics.current();
+        long start = System.nanoTime();
+        return call.get().whenComplete((result, e) ->
+                metrics.addTime(InvocationMetrics.STORE_TIME, System.nanoTime() - start));
+    }
+}
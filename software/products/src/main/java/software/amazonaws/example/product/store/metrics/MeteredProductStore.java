@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.metrics;
+
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.ProductStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Adds the time spent in every call to another {@link ProductStore} to the invocation's
+ * {@link InvocationMetrics#STORE_TIME}.
+ */
+public class MeteredProductStore implements ProductStore {
+
+    private final ProductStore delegate;
+
+    public MeteredProductStore(ProductStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id) {
+        return time(() -> delegate.getProduct(id));
+    }
+
+    @Override
+    public Optional<Product> getProduct(String id, Set<ProductField> fields) {
+        return time(() -> delegate.getProduct(id, fields));
+    }
+
+    @Override
+    public void putProduct(Product product) {
+        time(() -> {
+            delegate.putProduct(product);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        time(() -> {
+            delegate.deleteProduct(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor) {
+        return time(() -> delegate.getAllProduct(limit, cursor));
+    }
+
+    @Override
+    public Products getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return time(() -> delegate.getAllProduct(limit, cursor, fields));
+    }
+
+    @Override
+    public Products searchProducts(ProductQuery query, int limit, String cursor) {
+        return time(() -> delegate.searchProducts(query, limit, cursor));
+    }
+
+    @Override
+    public Products getProducts(Collection<String> ids) {
+        return time(() -> delegate.getProducts(ids));
+    }
+
+    @Override
+    public List<String> putProducts(Collection<Product> products) {
+        return time(() -> delegate.putProducts(products));
+    }
+
+    @Override
+    public List<String> deleteProducts(Collection<String> ids) {
+        return time(() -> delegate.deleteProducts(ids));
+    }
+
+    private static <T> T time(InvocationMetrics.TimedWork<T, RuntimeException> call) {
+        return InvocationMetrics.current().time(InvocationMetrics.STORE_TIME, call);
+    }
+}
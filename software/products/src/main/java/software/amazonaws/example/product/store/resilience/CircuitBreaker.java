@@ -0,0 +1,136 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling the store for a while once most recent calls have failed, so that requests fail fast instead of
+ * waiting for timeouts and retries while DynamoDB recovers.
+ * <p>
+ * The outcomes of the last {@code windowSize} calls are kept. Once at least {@code minimumCalls} have been seen and
+ * the share of failures reaches {@code failureRateThreshold}, the breaker opens and rejects calls for
+ * {@code openNanos}. It then lets a single call through: if that succeeds the breaker closes, otherwise it opens again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final LongSupplier ticker;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openDuration, TimeUnit unit,
+                   LongSupplier ticker) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return {@code true} if a call may be made; its outcome must then be reported with {@link #onSuccess()},
+     * {@link #onFailure()} or {@link #onIgnored()}
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (ticker.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    /**
+     * Reports that an acquired call was not made, or that its outcome says nothing about the store's health.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return how long the breaker stays open, or 0 if it is not open
+     */
+    synchronized long retryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (ticker.getAsLong() - openedAt)));
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = ticker.getAsLong();
+        probing = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probing = false;
+        calls = 0;
+        failures = 0;
+        next = 0;
+    }
+}
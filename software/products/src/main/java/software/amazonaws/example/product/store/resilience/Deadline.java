@@ -0,0 +1,63 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which store calls made for the current invocation have to finish, derived from the Lambda
+ * context's remaining time. Part of the remaining time is held back so that the handler can still answer once the store
+ * gives up; past the deadline, calls are neither retried nor hedged.
+ * <p>
+ * Like {@link software.amazonaws.example.product.metrics.InvocationMetrics}, the deadline is bound to the handler's
+ * thread, so stores read it when a call is made rather than when it completes. Nested invocations, i.e. the router's
+ * routes, keep the outer invocation's deadline.
+ */
+public final class Deadline {
+
+    static final long RESERVED_MILLIS = 250;
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long nanos;
+    private int depth = 1;
+
+    private Deadline(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Sets the deadline for the calling thread, unless one is already set, in which case that one is kept until the
+     * matching {@link #end()}. A remaining time of 0 or less, as reported outside Lambda, means that there is no
+     * deadline.
+     */
+    public static void begin(long remainingMillis) {
+        Deadline current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return;
+        }
+        if (remainingMillis <= 0) {
+            CURRENT.set(new Deadline(Long.MAX_VALUE));
+            return;
+        }
+        long budgetMillis = remainingMillis - Math.min(RESERVED_MILLIS, remainingMillis / 2);
+        CURRENT.set(new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis)));
+    }
+
+    public static void end() {
+        Deadline current = CURRENT.get();
+        if (current != null && --current.depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return the deadline in {@link System#nanoTime()} terms, or {@link Long#MAX_VALUE} if there is none
+     */
+    static long nanos() {
+        Deadline current = CURRENT.get();
+        return current != null ? current.nanos : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sorts store failures into those worth retrying and those that are the caller's problem.
+ */
+public final class Failures {
+
+    public enum Kind {
+        /** DynamoDB is rejecting requests to protect itself; retrying later helps. */
+        THROTTLED,
+        /** A server error, network error or timeout; retrying helps if the call is idempotent. */
+        TRANSIENT,
+        /** Validation errors, failed conditions and the like; DynamoDB itself is fine. */
+        PERMANENT
+    }
+
+    private Failures() {
+    }
+
+    public static Kind classify(Throwable failure) {
+        if (failure instanceof ProvisionedThroughputExceededException
+                || failure instanceof RequestLimitExceededException
+                // Raised by the store itself, e.g. for batch keys DynamoDB kept leaving unprocessed
+                || failure instanceof StoreUnavailableException) {
+            return Kind.THROTTLED;
+        }
+        if (failure instanceof SdkServiceException serviceException) {
+            if (serviceException.isThrottlingException()) {
+                return Kind.THROTTLED;
+            }
+            return serviceException.statusCode() >= 500 ? Kind.TRANSIENT : Kind.PERMANENT;
+        }
+        if (failure instanceof SdkClientException || failure instanceof TimeoutException
+                || failure instanceof IOException) {
+            return Kind.TRANSIENT;
+        }
+        return Kind.PERMANENT;
+    }
+
+    public static Throwable unwrap(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+}
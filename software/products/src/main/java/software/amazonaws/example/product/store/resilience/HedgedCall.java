@@ -0,0 +1,66 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * One logical read served by up to two identical requests. The first request to succeed completes the call and the
+ * other one is cancelled; the call only fails once every request started for it has failed.
+ */
+final class HedgedCall<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> requests = new ArrayList<>(2);
+    private int pending;
+    private Throwable firstFailure;
+
+    /**
+     * Starts another request, unless the call has already completed.
+     *
+     * @return {@code true} if a request was started
+     */
+    synchronized boolean start(Supplier<CompletableFuture<T>> request) {
+        if (result.isDone()) {
+            return false;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        requests.add(future);
+        pending++;
+        future.whenComplete(this::onComplete);
+        return true;
+    }
+
+    CompletableFuture<T> result() {
+        return result;
+    }
+
+    private synchronized void onComplete(T value, Throwable failure) {
+        pending--;
+        if (failure == null) {
+            if (result.complete(value)) {
+                for (CompletableFuture<T> request : requests) {
+                    request.cancel(false);
+                }
+            }
+            return;
+        }
+
+        if (firstFailure == null) {
+            firstFailure = failure;
+        }
+        if (pending == 0) {
+            result.completeExceptionally(firstFailure);
+        }
+    }
+}
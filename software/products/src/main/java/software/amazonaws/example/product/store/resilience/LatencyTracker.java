@@ -0,0 +1,49 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent successful calls and their 95th percentile, which is how long a read waits
+ * before it is hedged. The percentile is recomputed every {@link #RECOMPUTE_INTERVAL} samples rather than on every
+ * read.
+ */
+final class LatencyTracker {
+
+    static final int RECOMPUTE_INTERVAL = 16;
+
+    private final long[] samples;
+    private final int minimumSamples;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long p95Nanos = -1;
+
+    LatencyTracker(int size, int minimumSamples) {
+        this.samples = new long[size];
+        this.minimumSamples = minimumSamples;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (count >= minimumSamples && (p95Nanos < 0 || ++sinceRecompute >= RECOMPUTE_INTERVAL)) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            p95Nanos = sorted[(int) Math.ceil(count * 0.95) - 1];
+            sinceRecompute = 0;
+        }
+    }
+
+    /**
+     * @return the 95th percentile latency, or -1 until enough calls have been seen
+     */
+    synchronized long p95Nanos() {
+        return p95Nanos;
+    }
+}
@@ -0,0 +1,283 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazonaws.example.product.metrics.InvocationMetrics;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries, hedging and a circuit breaker in front of the DynamoDB store, which is built with SDK retries turned off so
+ * that this class alone decides how often DynamoDB is called.
+ * <ul>
+ *     <li>Throttled calls are retried with exponential backoff and full jitter. Reads, batch writes and deletes are
+ *     also retried after server errors and timeouts; single product writes are not, because a write that timed out
+ *     may have been applied and increments the version. Retries draw from a {@link RetryTokenBucket}, so they stop
+ *     when most calls fail.</li>
+ *     <li>Single product reads send a second request if the first has not answered within the 95th percentile of
+ *     recent read latencies, and use whichever answers first.</li>
+ *     <li>A {@link CircuitBreaker} fails calls fast once most recent calls have been throttled or failed.</li>
+ *     <li>Nothing is retried or hedged past the invocation's {@link Deadline}, and calls still running then time out.</li>
+ * </ul>
+ * Calls that fail for these reasons complete with a {@link StoreUnavailableException}; other failures are passed on
+ * unchanged.
+ */
+public class ResilientAsyncProductStore implements AsyncProductStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientAsyncProductStore.class);
+
+    static final String MAX_ATTEMPTS_VARIABLE = "DYNAMODB_MAX_ATTEMPTS";
+    static final String HEDGING_VARIABLE = "DYNAMODB_HEDGING";
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private static final long BACKOFF_BASE_MILLIS = 25;
+    private static final long THROTTLED_BACKOFF_BASE_MILLIS = 50;
+    private static final long BACKOFF_MAX_MILLIS = 1000;
+
+    private static final int TOKEN_BUCKET_CAPACITY = 100;
+    private static final int RETRY_COST = 5;
+    private static final int THROTTLED_RETRY_COST = 10;
+    private static final int HEDGE_COST = 5;
+
+    private final AsyncProductStore delegate;
+    private final int maxAttempts;
+    private final boolean hedging;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryTokenBucket retryTokens = new RetryTokenBucket(TOKEN_BUCKET_CAPACITY);
+    private final LatencyTracker readLatency = new LatencyTracker(256, 32);
+
+    public ResilientAsyncProductStore(AsyncProductStore delegate) {
+        this(delegate, DEFAULT_MAX_ATTEMPTS, true, defaultCircuitBreaker());
+    }
+
+    ResilientAsyncProductStore(AsyncProductStore delegate, int maxAttempts, boolean hedging,
+                               CircuitBreaker circuitBreaker) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.hedging = hedging;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Wraps {@code delegate} with the number of attempts per call set by {@value #MAX_ATTEMPTS_VARIABLE}, 3 by
+     * default, and hedging unless {@value #HEDGING_VARIABLE} is {@code false}.
+     */
+    public static AsyncProductStore fromEnvironment(AsyncProductStore delegate) {
+        int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        String value = System.getenv(MAX_ATTEMPTS_VARIABLE);
+        if (value != null && !value.isBlank()) {
+            try {
+                maxAttempts = Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid value '{}' for {}", value, MAX_ATTEMPTS_VARIABLE);
+            }
+        }
+        boolean hedging = !"false".equalsIgnoreCase(System.getenv(HEDGING_VARIABLE));
+
+        return new ResilientAsyncProductStore(delegate, maxAttempts, hedging, defaultCircuitBreaker());
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id) {
+        return read(() -> delegate.getProduct(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> getProduct(String id, Set<ProductField> fields) {
+        return read(() -> delegate.getProduct(id, fields));
+    }
+
+    @Override
+    public CompletableFuture<Void> putProduct(Product product) {
+        return call(false, () -> delegate.putProduct(product));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProduct(String id) {
+        return call(true, () -> delegate.deleteProduct(id));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor) {
+        return call(true, () -> delegate.getAllProduct(limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getAllProduct(int limit, String cursor, Set<ProductField> fields) {
+        return call(true, () -> delegate.getAllProduct(limit, cursor, fields));
+    }
+
+    @Override
+    public CompletableFuture<Products> searchProducts(ProductQuery query, int limit, String cursor) {
+        return call(true, () -> delegate.searchProducts(query, limit, cursor));
+    }
+
+    @Override
+    public CompletableFuture<Products> getProducts(Collection<String> ids) {
+        return call(true, () -> delegate.getProducts(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> putProducts(Collection<Product> products) {
+        return call(true, () -> delegate.putProducts(products));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteProducts(Collection<String> ids) {
+        return call(true, () -> delegate.deleteProducts(ids));
+    }
+
+    CircuitBreaker.State circuitBreakerState() {
+        return circuitBreaker.state();
+    }
+
+    // Opens when half of the last 20 calls, and at least 10, failed; stays open for 5 seconds
+    private static CircuitBreaker defaultCircuitBreaker() {
+        return new CircuitBreaker(20, 10, 0.5, 5, TimeUnit.SECONDS, System::nanoTime);
+    }
+
+    /**
+     * @param idempotent whether the call may be retried after a failure that leaves it unknown whether it was applied
+     */
+    private <T> CompletableFuture<T> call(boolean idempotent, Supplier<CompletableFuture<T>> attempt) {
+        return start(new Call<>(idempotent, false, attempt));
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<CompletableFuture<T>> request) {
+        return start(new Call<>(true, hedging, request));
+    }
+
+    private <T> CompletableFuture<T> start(Call<T> call) {
+        attempt(call, 1);
+        return call.result;
+    }
+
+    private <T> void attempt(Call<T> call, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            call.result.completeExceptionally(new StoreUnavailableException(
+                    "DynamoDB is failing, calls are rejected for now", circuitBreaker.retryAfterMillis()));
+            return;
+        }
+        long remainingNanos = call.deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            circuitBreaker.onIgnored();
+            call.result.completeExceptionally(new StoreUnavailableException("Invocation deadline has passed", 0));
+            return;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.hedged ? hedged(call) : call.attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (call.deadlineNanos != Long.MAX_VALUE) {
+            future = future.orTimeout(remainingNanos, TimeUnit.NANOSECONDS);
+        }
+
+        future.whenComplete((value, failure) -> {
+            if (failure == null) {
+                circuitBreaker.onSuccess();
+                retryTokens.release();
+                call.result.complete(value);
+                return;
+            }
+
+            Throwable cause = Failures.unwrap(failure);
+            Failures.Kind kind = Failures.classify(cause);
+            if (kind == Failures.Kind.PERMANENT) {
+                circuitBreaker.onSuccess();
+                call.result.completeExceptionally(cause);
+                return;
+            }
+
+            circuitBreaker.onFailure();
+            if (!retry(call, attempt, kind)) {
+                call.result.completeExceptionally(new StoreUnavailableException(
+                        "DynamoDB call failed after " + attempt + " attempt(s)", cause));
+            }
+        });
+    }
+
+    /**
+     * @return {@code false} if the call should not be retried
+     */
+    private <T> boolean retry(Call<T> call, int attempt, Failures.Kind kind) {
+        if (attempt >= maxAttempts || (kind == Failures.Kind.TRANSIENT && !call.idempotent)) {
+            return false;
+        }
+
+        long baseMillis = kind == Failures.Kind.THROTTLED ? THROTTLED_BACKOFF_BASE_MILLIS : BACKOFF_BASE_MILLIS;
+        long capMillis = Math.min(BACKOFF_MAX_MILLIS, baseMillis << (attempt - 1));
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(capMillis + 1));
+        if (call.deadlineNanos - System.nanoTime() <= delayNanos) {
+            return false;
+        }
+        if (!retryTokens.tryAcquire(kind == Failures.Kind.THROTTLED ? THROTTLED_RETRY_COST : RETRY_COST)) {
+            return false;
+        }
+
+        call.metrics.count(InvocationMetrics.STORE_RETRIES, 1);
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> attempt(call, attempt + 1));
+        return true;
+    }
+
+    private <T> CompletableFuture<T> hedged(Call<T> call) {
+        long delayNanos = readLatency.p95Nanos();
+        HedgedCall<T> requests = new HedgedCall<>();
+        requests.start(() -> timed(call.attempt));
+        if (delayNanos >= 0 && call.deadlineNanos - System.nanoTime() > delayNanos) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!requests.result().isDone() && circuitBreaker.state() == CircuitBreaker.State.CLOSED
+                        && retryTokens.tryAcquire(HEDGE_COST) && requests.start(() -> timed(call.attempt))) {
+                    call.metrics.count(InvocationMetrics.STORE_HEDGES, 1);
+                }
+            });
+        }
+        return requests.result();
+    }
+
+    private <T> CompletableFuture<T> timed(Supplier<CompletableFuture<T>> request) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = request.get();
+        future.thenRun(() -> readLatency.record(System.nanoTime() - start));
+        return future;
+    }
+
+    private static final class Call<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final boolean idempotent;
+        private final boolean hedged;
+        private final Supplier<CompletableFuture<T>> attempt;
+        // Both are bound to the handler's thread, while retries run on timer and SDK threads
+        private final long deadlineNanos = Deadline.nanos();
+        private final InvocationMetrics metrics = InvocationMetrics.current();
+
+        private Call(boolean idempotent, boolean hedged, Supplier<CompletableFuture<T>> attempt) {
+            this.idempotent = idempotent;
+            this.hedged = hedged;
+            this.attempt = attempt;
+        }
+    }
+}
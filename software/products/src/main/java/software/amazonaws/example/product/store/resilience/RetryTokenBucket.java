@@ -0,0 +1,38 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+/**
+ * Limits retries and hedged requests to a share of the calls that succeed. Each retry or hedge takes tokens and each
+ * successful call returns one, so while DynamoDB is healthy there are always tokens, but under sustained throttling
+ * the bucket runs dry and calls fail after their first attempt instead of multiplying the load.
+ */
+final class RetryTokenBucket {
+
+    private final int capacity;
+    private int tokens;
+
+    RetryTokenBucket(int capacity) {
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    synchronized boolean tryAcquire(int cost) {
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    synchronized void release() {
+        if (tokens < capacity) {
+            tokens++;
+        }
+    }
+
+    synchronized int available() {
+        return tokens;
+    }
+}
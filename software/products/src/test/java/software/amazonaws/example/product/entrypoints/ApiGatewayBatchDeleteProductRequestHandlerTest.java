@@ -0,0 +1,51 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiGatewayBatchDeleteProductRequestHandlerTest {
+
+    private ApiGatewayBatchDeleteProductRequestHandler handler;
+
+    private AsyncProductStore mockProductStore = mock(AsyncProductStore.class);
+
+    @Test
+    public void testValidRequest() {
+        when(mockProductStore.deleteProducts(List.of("111", "222"))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        handler = new ApiGatewayBatchDeleteProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("{\"ids\": [\"111\", \"222\"]}")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        verify(mockProductStore).deleteProducts(List.of("111", "222"));
+    }
+
+    @Test
+    public void testMalformedBody() {
+        handler = new ApiGatewayBatchDeleteProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("[\"111\"]")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+    }
+}
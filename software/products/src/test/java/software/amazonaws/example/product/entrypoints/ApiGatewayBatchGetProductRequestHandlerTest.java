@@ -0,0 +1,87 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiGatewayBatchGetProductRequestHandlerTest {
+
+    private ApiGatewayBatchGetProductRequestHandler handler;
+
+    private AsyncProductStore mockProductStore = mock(AsyncProductStore.class);
+
+    @Test
+    public void testValidRequest() throws JSONException {
+        Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+        when(mockProductStore.getProducts(List.of("111", "222"))).thenReturn(CompletableFuture.completedFuture(new Products(List.of(product))));
+
+        handler = new ApiGatewayBatchGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("""
+                {
+                    "ids": ["111", "222"]
+                }""")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        JSONAssert.assertEquals("""
+                {
+                "products": [
+                {
+                "id":"111",
+                "name":"Indigo Hats",
+                "price":13.34
+                }]}
+                """, response.getBody(), JSONCompareMode.STRICT);
+    }
+
+    @Test
+    public void testEmptyIdList() {
+        handler = new ApiGatewayBatchGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("{\"ids\": []}")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+        assertEquals("application/json", response.getHeaders().get("Content-Type"));
+        verify(mockProductStore, never()).getProducts(any());
+    }
+
+    @Test
+    public void testStoreFailure() {
+        when(mockProductStore.getProducts(List.of("111"))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+
+        handler = new ApiGatewayBatchGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("{\"ids\": [\"111\"]}")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(500, response.getStatusCode());
+    }
+}
@@ -0,0 +1,85 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiGatewayBatchPutProductRequestHandlerTest {
+
+    private static final String TWO_PRODUCTS = """
+            {
+                "products": [
+                    {"id": "111", "name": "Indigo Hats", "price": 13.34},
+                    {"id": "222", "name": "Red Shoes", "price": 44.55}
+                ]
+            }""";
+
+    private ApiGatewayBatchPutProductRequestHandler handler;
+
+    private AsyncProductStore mockProductStore = mock(AsyncProductStore.class);
+
+    @Test
+    public void testValidRequest() {
+        when(mockProductStore.putProducts(anyCollection())).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        handler = new ApiGatewayBatchPutProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody(TWO_PRODUCTS)
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(201, response.getStatusCode());
+        verify(mockProductStore).putProducts(anyCollection());
+    }
+
+    @Test
+    public void testPartiallyProcessedRequest() throws JSONException {
+        when(mockProductStore.putProducts(anyCollection())).thenReturn(CompletableFuture.completedFuture(List.of("222")));
+
+        handler = new ApiGatewayBatchPutProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody(TWO_PRODUCTS)
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(207, response.getStatusCode());
+        JSONAssert.assertEquals("""
+                {
+                "message": "Some products were not written",
+                "unprocessedIds": ["222"]
+                }
+                """, response.getBody(), JSONCompareMode.STRICT);
+    }
+
+    @Test
+    public void testProductWithoutPrice() {
+        handler = new ApiGatewayBatchPutProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("{\"products\": [{\"id\": \"111\", \"name\": \"Indigo Hats\"}]}")
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+        verify(mockProductStore, never()).putProducts(anyCollection());
+    }
+}
@@ -7,14 +7,21 @@ import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
 import software.amazonaws.example.product.model.Products;
 import software.amazonaws.example.product.store.ProductStore;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,7 +36,7 @@ public class ApiGatewayGetAllProductRequestHandlerTest {
     public void test() throws JSONException {
         Product product = new Product("Indigo Hats", "3d22f23b-1e74-4291-a6e9-4ab53c15cd77", new BigDecimal("13.3434343"));
 
-        when(mockProductStore.getAllProduct()).thenReturn(new Products(List.of(product)));
+        when(mockProductStore.getAllProduct(20, null)).thenReturn(new Products(List.of(product)));
 
         handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
 
@@ -46,6 +53,97 @@ public class ApiGatewayGetAllProductRequestHandlerTest {
                 "price":13.34
                 }]}
                 """, response.getBody(), JSONCompareMode.STRICT);
-        verify(mockProductStore, timeout(1)).getAllProduct();
+        verify(mockProductStore, timeout(1)).getAllProduct(20, null);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPaginatedRequest() throws JSONException {
+        Product product = new Product("3d22f23b-1e74-4291-a6e9-4ab53c15cd77", "Indigo Hats", new BigDecimal("13.34"));
+
+        when(mockProductStore.getAllProduct(5, "abc")).thenReturn(new Products(List.of(product), "def"));
+
+        handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withQueryStringParameters(Map.of("limit", "5", "cursor", "abc"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        JSONAssert.assertEquals("""
+                {
+                "products": [
+                {
+                "id":"3d22f23b-1e74-4291-a6e9-4ab53c15cd77",
+                "name":"Indigo Hats",
+                "price":13.34
+                }],
+                "nextCursor":"def"
+                }
+                """, response.getBody(), JSONCompareMode.STRICT);
+        verify(mockProductStore, timeout(1)).getAllProduct(5, "abc");
+    }
+
+    @Test
+    public void testSparseFields() throws JSONException {
+        Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.NAME);
+        Product product = new Product();
+        product.setId("111");
+        product.setName("Indigo Hats");
+
+        when(mockProductStore.getAllProduct(20, null, fields)).thenReturn(new Products(List.of(product)));
+
+        handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withQueryStringParameters(Map.of("fields", "name"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        JSONAssert.assertEquals("{\"products\": [{\"id\": \"111\", \"name\": \"Indigo Hats\"}]}",
+                response.getBody(), JSONCompareMode.STRICT);
+    }
+
+    @Test
+    public void testInvalidFields() {
+        handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withQueryStringParameters(Map.of("fields", "id,colour"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+        verify(mockProductStore, never()).getAllProduct(anyInt(), any(), any());
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
+
+        for (String limit : List.of("0", "101", "ten")) {
+            APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                    .withQueryStringParameters(Map.of("limit", limit))
+                    .build();
+            APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+            assertEquals(400, response.getStatusCode());
+        }
+        verify(mockProductStore, never()).getAllProduct(anyInt(), any());
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        when(mockProductStore.getAllProduct(20, "not-a-cursor")).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        handler = new ApiGatewayGetAllProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withQueryStringParameters(Map.of("cursor", "not-a-cursor"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+    }
+}
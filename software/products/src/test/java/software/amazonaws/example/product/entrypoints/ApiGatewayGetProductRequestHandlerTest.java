@@ -7,13 +7,20 @@ import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductJsonCodec;
 import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
@@ -68,4 +75,82 @@ public class ApiGatewayGetProductRequestHandlerTest {
                 """, response.getBody(), JSONCompareMode.STRICT);
         verify(mockProductStore, timeout(1)).getProduct("3d22f23b-1e74-4291-a6e9-4ab53c15cd77");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCbor() throws IOException {
+        ProductStore mockProductStore = mock(ProductStore.class);
+        Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"), 4L);
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        handler = new ApiGatewayGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .withHeaders(Map.of("accept", "application/cbor, application/json;q=0.5"))
+                .build(), new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("application/cbor", response.getHeaders().get("Content-Type"));
+        assertTrue(response.getIsBase64Encoded());
+        Product read = ProductJsonCodec.readProductCbor(Base64.getDecoder().decode(response.getBody()));
+        assertEquals("Indigo Hats", read.getName());
+        assertEquals(4L, read.getVersion());
+
+        response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .withHeaders(Map.of("accept", "*/*"))
+                .build(), new TestContext());
+        assertEquals("application/json", response.getHeaders().get("Content-Type"));
+    }
+
+    @Test
+    public void testNotModified() {
+        ProductStore mockProductStore = mock(ProductStore.class);
+        Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"), 4L);
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        handler = new ApiGatewayGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .build(), new TestContext());
+        String etag = response.getHeaders().get("ETag");
+        assertEquals(200, response.getStatusCode());
+
+        response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .withHeaders(Map.of("if-none-match", "\"other\", W/" + etag))
+                .build(), new TestContext());
+        assertEquals(304, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().get("ETag"));
+
+        product.setVersion(5L);
+        response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .withHeaders(Map.of("if-none-match", etag))
+                .build(), new TestContext());
+        assertEquals(200, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().get("ETag"));
+    }
+
+    @Test
+    public void testStoreUnavailable() throws JSONException {
+        ProductStore mockProductStore = mock(ProductStore.class);
+        when(mockProductStore.getProduct("111")).thenThrow(new StoreUnavailableException("throttled", 1500));
+
+        handler = new ApiGatewayGetProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withPathParameters(Map.of("id", "111"))
+                .build(), new TestContext());
+
+        assertEquals(503, response.getStatusCode());
+        assertEquals("2", response.getHeaders().get("Retry-After"));
+        JSONAssert.assertEquals("""
+                {
+                "message":"Service temporarily unavailable, try again later"
+                }
+                """, response.getBody(), JSONCompareMode.STRICT);
+    }
+}
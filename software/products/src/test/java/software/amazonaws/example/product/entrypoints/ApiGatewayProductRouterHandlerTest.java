@@ -0,0 +1,102 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.SynchronousAsyncProductStore;
+import software.amazonaws.example.product.store.cache.CachingProductStore;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class ApiGatewayProductRouterHandlerTest {
+
+    private final ProductStore mockProductStore = mock(ProductStore.class);
+    private final AsyncProductStore mockAsyncProductStore = mock(AsyncProductStore.class);
+    private final ApiGatewayProductRouterHandler handler =
+            new ApiGatewayProductRouterHandler(mockProductStore, mockAsyncProductStore);
+
+    private final Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+
+    @Test
+    public void testRoutesSingleProductRequests() {
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        APIGatewayV2HTTPResponse getResponse = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("GET /{id}")
+                .withPathParameters(Map.of("id", "111"))
+                .build(), new TestContext());
+        APIGatewayV2HTTPResponse deleteResponse = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("DELETE /{id}")
+                .withPathParameters(Map.of("id", "111"))
+                .build(), new TestContext());
+
+        assertEquals(200, getResponse.getStatusCode());
+        assertEquals(200, deleteResponse.getStatusCode());
+        verify(mockProductStore).getProduct("111");
+        verify(mockProductStore).deleteProduct("111");
+    }
+
+    @Test
+    public void testRoutesBatchRequestsToAsyncStore() {
+        when(mockAsyncProductStore.getProducts(List.of("111")))
+                .thenReturn(CompletableFuture.completedFuture(new Products(List.of(product))));
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("POST /batch/get")
+                .withBody("{\"ids\": [\"111\"]}")
+                .build(), new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        verify(mockAsyncProductStore).getProducts(List.of("111"));
+    }
+
+    @Test
+    public void testBatchDeleteInvalidatesCache() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProduct(product);
+        ApiGatewayProductRouterHandler cachingHandler = new ApiGatewayProductRouterHandler(
+                new CachingProductStore(store, 100, 60, 60, TimeUnit.SECONDS), new SynchronousAsyncProductStore(store));
+        APIGatewayV2HTTPEvent get = APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("GET /{id}")
+                .withPathParameters(Map.of("id", "111"))
+                .build();
+
+        assertEquals(200, cachingHandler.handleRequest(get, new TestContext()).getStatusCode());
+        APIGatewayV2HTTPResponse deleteResponse = cachingHandler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("POST /batch/delete")
+                .withBody("{\"ids\": [\"111\"]}")
+                .build(), new TestContext());
+
+        assertEquals(200, deleteResponse.getStatusCode());
+        assertEquals(404, cachingHandler.handleRequest(get, new TestContext()).getStatusCode());
+    }
+
+    @Test
+    public void testUnknownRoute() {
+        APIGatewayV2HTTPResponse response = handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("PATCH /{id}")
+                .build(), new TestContext());
+
+        assertEquals(404, response.getStatusCode());
+        verifyNoInteractions(mockProductStore, mockAsyncProductStore);
+    }
+}
@@ -8,8 +8,13 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductField;
+import software.amazonaws.example.product.model.ProductJsonCodec;
 import software.amazonaws.example.product.store.ProductStore;
+import software.amazonaws.example.product.store.ProductVersionConflictException;
 
+import java.math.BigDecimal;
+import java.util.Base64;
 import java.util.Map;
 
 import static org.mockito.Mockito.*;
@@ -41,6 +46,40 @@ public class ApiGatewayPutProductRequestHandlerTest {
         verify(mockProductStore, timeout(1)).putProduct(any(Product.class));
     }
 
+    @Test
+    public void testCborRequest() {
+        handler = new ApiGatewayPutProductRequestHandler(mockProductStore);
+
+        byte[] body = ProductJsonCodec.writeProductCbor(new Product("333", "test", new BigDecimal("44.55")),
+                ProductField.ALL);
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody(Base64.getEncoder().encodeToString(body))
+                .withIsBase64Encoded(true)
+                .withHeaders(Map.of("content-type", "application/cbor"))
+                .withPathParameters(Map.of("id", "333"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        Assertions.assertEquals(201, response.getStatusCode());
+        verify(mockProductStore).putProduct(argThat(product -> product.getPrice().equals(new BigDecimal("44.55"))));
+    }
+
+    @Test
+    public void testVersionConflict() {
+        doThrow(new ProductVersionConflictException("333", 2)).when(mockProductStore).putProduct(any(Product.class));
+
+        handler = new ApiGatewayPutProductRequestHandler(mockProductStore);
+
+        APIGatewayV2HTTPEvent event = APIGatewayV2HTTPEvent.builder()
+                .withBody("{\"id\": \"333\", \"name\": \"test\", \"price\": 44.55, \"version\": 2}")
+                .withPathParameters(Map.of("id", "333"))
+                .build();
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event, new TestContext());
+
+        Assertions.assertEquals(409, response.getStatusCode());
+        verify(mockProductStore).putProduct(argThat(product -> product.getVersion() == 2L));
+    }
+
     @Test
     public void testRequestBodyNull() {
         handler = new ApiGatewayPutProductRequestHandler(mockProductStore);
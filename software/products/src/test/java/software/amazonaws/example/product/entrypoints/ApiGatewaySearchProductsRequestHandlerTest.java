@@ -0,0 +1,118 @@
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.ProductStore;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiGatewaySearchProductsRequestHandlerTest {
+
+    private final ProductStore mockProductStore = mock(ProductStore.class);
+
+    private final ApiGatewaySearchProductsRequestHandler handler =
+            new ApiGatewaySearchProductsRequestHandler(mockProductStore);
+
+    @Test
+    public void testSearch() throws JSONException {
+        Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+        when(mockProductStore.searchProducts(any(ProductQuery.class), eq(5), eq(null)))
+                .thenReturn(new Products(List.of(product), "next"));
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event(Map.of(
+                "minPrice", "10", "maxPrice", "20", "namePrefix", "ind", "limit", "5", "fields", "name")),
+                new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        JSONAssert.assertEquals("""
+                {
+                "products": [
+                {
+                "id":"111",
+                "name":"Indigo Hats"
+                }],
+                "nextCursor": "next"}
+                """, response.getBody(), JSONCompareMode.STRICT);
+
+        ArgumentCaptor<ProductQuery> captor = ArgumentCaptor.forClass(ProductQuery.class);
+        verify(mockProductStore).searchProducts(captor.capture(), eq(5), eq(null));
+        assertEquals(new BigDecimal("10"), captor.getValue().getMinPrice());
+        assertEquals(new BigDecimal("20"), captor.getValue().getMaxPrice());
+        assertEquals("ind", captor.getValue().getNamePrefix());
+    }
+
+    @Test
+    public void testPriceOnlySearchUsesDefaultPageSize() {
+        when(mockProductStore.searchProducts(any(ProductQuery.class), anyInt(), any()))
+                .thenReturn(new Products(List.of()));
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event(Map.of("maxPrice", "9.99", "cursor", "abc")),
+                new TestContext());
+
+        assertEquals(200, response.getStatusCode());
+        ArgumentCaptor<ProductQuery> captor = ArgumentCaptor.forClass(ProductQuery.class);
+        verify(mockProductStore).searchProducts(captor.capture(),
+                eq(ApiGatewayGetAllProductRequestHandler.DEFAULT_PAGE_SIZE), eq("abc"));
+        assertNull(captor.getValue().getMinPrice());
+        assertNull(captor.getValue().getNamePrefix());
+    }
+
+    @Test
+    public void testRequiresACriterion() {
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event(Map.of("limit", "5")), new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+        verify(mockProductStore, never()).searchProducts(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testInvalidCriteria() {
+        for (Map<String, String> parameters : List.of(Map.of("minPrice", "cheap"),
+                Map.of("minPrice", "20", "maxPrice", "10"),
+                Map.of("namePrefix", ""),
+                Map.of("namePrefix", "a", "limit", "0"),
+                Map.of("namePrefix", "a", "fields", "colour"))) {
+            assertEquals(400, handler.handleRequest(event(parameters), new TestContext()).getStatusCode(),
+                    parameters.toString());
+        }
+        verify(mockProductStore, never()).searchProducts(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        when(mockProductStore.searchProducts(any(ProductQuery.class), anyInt(), eq("bad")))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        APIGatewayV2HTTPResponse response = handler.handleRequest(event(Map.of("namePrefix", "a", "cursor", "bad")),
+                new TestContext());
+
+        assertEquals(400, response.getStatusCode());
+    }
+
+    private static APIGatewayV2HTTPEvent event(Map<String, String> queryParameters) {
+        return APIGatewayV2HTTPEvent.builder()
+                .withRouteKey("GET /search")
+                .withQueryStringParameters(queryParameters)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionTest {
+
+    private static final String LARGE_BODY = "{\"products\": [" + "{\"id\": \"1\", \"name\": \"Indigo Hats\"},".repeat(100)
+            + "{\"id\": \"2\"}]}";
+
+    @Test
+    public void testNegotiate() {
+        assertEquals("gzip", Compression.negotiate("gzip, deflate, br"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("gzip", Compression.negotiate("*"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, *;q=0.1"));
+        assertNull(Compression.negotiate("br"));
+        assertNull(Compression.negotiate("identity, *;q=0"));
+        assertNull(Compression.negotiate(null));
+    }
+
+    @Test
+    public void testCompressesLargeBodies() throws IOException {
+        APIGatewayV2HTTPResponse response = Compression.compress(event("gzip"), response(LARGE_BODY));
+
+        assertTrue(response.getIsBase64Encoded());
+        assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+        assertEquals("application/json", response.getHeaders().get("Content-Type"));
+        byte[] compressed = Base64.getDecoder().decode(response.getBody());
+        assertTrue(compressed.length < LARGE_BODY.length());
+        assertEquals(LARGE_BODY, decode(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        APIGatewayV2HTTPResponse response = Compression.compress(event("deflate"), response(LARGE_BODY));
+
+        assertEquals("deflate", response.getHeaders().get("Content-Encoding"));
+        byte[] compressed = Base64.getDecoder().decode(response.getBody());
+        assertEquals(LARGE_BODY, decode(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testLeavesSmallBodiesAlone() {
+        APIGatewayV2HTTPResponse response = Compression.compress(event("gzip"), response("{\"products\": []}"));
+
+        assertFalse(response.getIsBase64Encoded());
+        assertEquals("{\"products\": []}", response.getBody());
+        assertNull(response.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+    }
+
+    @Test
+    public void testWithoutAcceptEncoding() {
+        APIGatewayV2HTTPResponse response = Compression.compress(APIGatewayV2HTTPEvent.builder().build(),
+                response(LARGE_BODY));
+
+        assertFalse(response.getIsBase64Encoded());
+        assertEquals(LARGE_BODY, response.getBody());
+    }
+
+    private static APIGatewayV2HTTPEvent event(String acceptEncoding) {
+        return APIGatewayV2HTTPEvent.builder()
+                .withHeaders(Map.of("accept-encoding", acceptEncoding))
+                .build();
+    }
+
+    private static APIGatewayV2HTTPResponse response(String body) {
+        return APIGatewayV2HTTPResponse.builder()
+                .withStatusCode(200)
+                .withHeaders(Map.of("Content-Type", "application/json"))
+                .withBody(body)
+                .build();
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
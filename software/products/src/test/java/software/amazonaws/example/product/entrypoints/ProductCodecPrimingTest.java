@@ -0,0 +1,16 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+public class ProductCodecPrimingTest {
+
+    @Test
+    public void testPrimesEveryFormat() {
+        assertDoesNotThrow(() -> new ProductCodecPriming().beforeCheckpoint(null));
+    }
+}
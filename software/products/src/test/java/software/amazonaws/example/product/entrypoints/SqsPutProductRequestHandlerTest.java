@@ -0,0 +1,127 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.entrypoints;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.store.AsyncProductStore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SqsPutProductRequestHandlerTest {
+
+    private final AsyncProductStore mockProductStore = mock(AsyncProductStore.class);
+
+    private final SqsPutProductRequestHandler handler = new SqsPutProductRequestHandler(mockProductStore);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRepeatedWritesAreCoalesced() {
+        when(mockProductStore.putProducts(anyCollection())).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        SQSBatchResponse response = handler.handleRequest(event(
+                message("m1", 1000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34}"),
+                message("m2", 1000, "{\"id\": \"222\", \"name\": \"Red Shoes\", \"price\": 44.55}"),
+                message("m3", 3000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 15.00}"),
+                message("m4", 2000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 14.00}")
+        ), new TestContext());
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        ArgumentCaptor<Collection<Product>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(mockProductStore).putProducts(captor.capture());
+        List<Product> written = new ArrayList<>(captor.getValue());
+        assertEquals(2, written.size());
+        assertEquals("111", written.get(0).getId());
+        assertEquals(new BigDecimal("15.00"), written.get(0).getPrice());
+        assertEquals("222", written.get(1).getId());
+    }
+
+    @Test
+    public void testLaterMessageWinsWhenTimestampsAreEqual() {
+        when(mockProductStore.putProducts(anyCollection())).thenReturn(CompletableFuture.completedFuture(List.of("111")));
+
+        SQSBatchResponse response = handler.handleRequest(event(
+                message("m1", 1000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34}"),
+                message("m2", 1000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 14.00}")
+        ), new TestContext());
+
+        assertEquals(List.of("m2"), failedMessageIds(response));
+    }
+
+    @Test
+    public void testInvalidMessagesAreReportedAsFailures() {
+        when(mockProductStore.putProducts(anyCollection())).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        SQSBatchResponse response = handler.handleRequest(event(
+                message("m1", 1000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34}"),
+                message("m2", 1000, "{\"id\": \"222\", \"name\": \"Red Shoes\"}"),
+                message("m3", 1000, "not json")
+        ), new TestContext());
+
+        assertEquals(List.of("m2", "m3"), failedMessageIds(response));
+        verify(mockProductStore).putProducts(anyCollection());
+    }
+
+    @Test
+    public void testOnlyInvalidMessages() {
+        SQSBatchResponse response = handler.handleRequest(event(message("m1", 1000, "")), new TestContext());
+
+        assertEquals(List.of("m1"), failedMessageIds(response));
+        verify(mockProductStore, never()).putProducts(anyCollection());
+    }
+
+    @Test
+    public void testStoreFailureFailsEveryWrite() {
+        when(mockProductStore.putProducts(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Throttled")));
+
+        SQSBatchResponse response = handler.handleRequest(event(
+                message("m1", 1000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 13.34}"),
+                message("m2", 1000, "{\"id\": \"222\", \"name\": \"Red Shoes\", \"price\": 44.55}"),
+                message("m3", 2000, "{\"id\": \"111\", \"name\": \"Indigo Hats\", \"price\": 14.00}")
+        ), new TestContext());
+
+        List<String> failed = failedMessageIds(response);
+        assertEquals(2, failed.size());
+        assertTrue(failed.containsAll(List.of("m2", "m3")));
+    }
+
+    private static SQSEvent event(SQSEvent.SQSMessage... messages) {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(List.of(messages));
+        return event;
+    }
+
+    private static SQSEvent.SQSMessage message(String messageId, long sentTimestamp, String body) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(messageId);
+        message.setAttributes(Map.of("SentTimestamp", String.valueOf(sentTimestamp)));
+        message.setBody(body);
+        return message;
+    }
+
+    private static List<String> failedMessageIds(SQSBatchResponse response) {
+        List<String> ids = new ArrayList<>();
+        for (SQSBatchResponse.BatchItemFailure failure : response.getBatchItemFailures()) {
+            ids.add(failure.getItemIdentifier());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,127 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.logging;
+
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonLoggerFactoryTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    public void writesJsonLinesOnFlush() throws Exception {
+        JsonLoggerFactory factory = new JsonLoggerFactory(Level.INFO, 0, new AsyncJsonAppender(out, true, 16));
+        Logger logger = factory.getLogger("software.amazonaws.example.product.entrypoints.SomeHandler");
+
+        logger.info("Fetching product {}", "111");
+        logger.warn("No product with id: {}", "\"222\"");
+        factory.afterInvocation();
+
+        String[] lines = output().split("\n");
+        assertEquals(2, lines.length);
+        JSONAssert.assertEquals("""
+                {"level": "INFO", "logger": "SomeHandler", "message": "Fetching product 111"}
+                """, lines[0], JSONCompareMode.LENIENT);
+        JSONAssert.assertEquals("""
+                {"level": "WARN", "logger": "SomeHandler", "message": "No product with id: \\"222\\""}
+                """, lines[1], JSONCompareMode.LENIENT);
+        assertTrue(lines[0].contains("\"timestamp\":\""));
+    }
+
+    @Test
+    public void skipsDisabledLevels() {
+        JsonLoggerFactory factory = new JsonLoggerFactory(Level.WARN, 0, new AsyncJsonAppender(out, false, 16));
+        Logger logger = factory.getLogger("test");
+
+        assertFalse(logger.isDebugEnabled());
+        assertFalse(logger.isInfoEnabled());
+        logger.info("Fetching product {}", "111");
+        factory.afterInvocation();
+
+        assertEquals("", output());
+    }
+
+    @Test
+    public void samplesDebugPerInvocation() {
+        JsonLoggerFactory factory = new JsonLoggerFactory(Level.INFO, 1, new AsyncJsonAppender(out, false, 16));
+        Logger logger = factory.getLogger("test");
+
+        assertTrue(logger.isDebugEnabled());
+        assertFalse(logger.isTraceEnabled());
+        logger.debug("Event body: {}", "{}");
+        factory.afterInvocation();
+
+        assertTrue(output().contains("\"message\":\"Event body: {}\""));
+    }
+
+    @Test
+    public void capturesMutableArgumentsWhenLogging() throws Exception {
+        JsonLoggerFactory factory = new JsonLoggerFactory(Level.INFO, 0, new AsyncJsonAppender(out, true, 16));
+        List<String> ids = new ArrayList<>(List.of("111"));
+
+        factory.getLogger("test").info("Fetching {}", ids);
+        ids.add("222");
+        factory.afterInvocation();
+
+        JSONAssert.assertEquals("""
+                {"message": "Fetching [111]"}
+                """, output(), JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    public void writesExceptions() throws Exception {
+        JsonLoggerFactory factory = new JsonLoggerFactory(Level.INFO, 0, new AsyncJsonAppender(out, false, 16));
+
+        factory.getLogger("test").error("Failed", new IllegalStateException("throttled"));
+
+        JSONAssert.assertEquals("""
+                {"level": "ERROR", "message": "Failed"}
+                """, output(), JSONCompareMode.LENIENT);
+        assertTrue(output().contains("java.lang.IllegalStateException: throttled\\n\\tat "));
+    }
+
+    @Test
+    public void takesFatalAsError() {
+        System.setProperty("LOG_LEVEL", "fatal");
+        try {
+            assertEquals(Level.ERROR, JsonLoggerFactory.fromEnvironment().level);
+        } finally {
+            System.clearProperty("LOG_LEVEL");
+        }
+    }
+
+    @Test
+    public void ignoresInvalidSettings() {
+        System.setProperty("LOG_LEVEL", "warn");
+        System.setProperty("LOG_BUFFER_SIZE", "lots");
+        System.setProperty("LOG_DEBUG_SAMPLE_RATE", "1.5");
+        try {
+            JsonLoggerFactory factory = JsonLoggerFactory.fromEnvironment();
+
+            assertEquals(Level.WARN, factory.level);
+            assertFalse(factory.getLogger("test").isDebugEnabled());
+        } finally {
+            System.clearProperty("LOG_LEVEL");
+            System.clearProperty("LOG_BUFFER_SIZE");
+            System.clearProperty("LOG_DEBUG_SAMPLE_RATE");
+        }
+    }
+
+    private String output() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
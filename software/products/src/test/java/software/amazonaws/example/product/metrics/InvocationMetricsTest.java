@@ -0,0 +1,93 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvocationMetricsTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final EmfWriter writer = new EmfWriter("Products", out);
+
+    @Test
+    public void writesEmbeddedMetricFormat() throws Exception {
+        InvocationMetrics metrics = InvocationMetrics.begin("GetProductFunction", writer);
+        InvocationMetrics.current().time(InvocationMetrics.STORE_TIME, () -> "product");
+        InvocationMetrics.current().count(InvocationMetrics.CACHE_HITS, 0);
+        InvocationMetrics.current().count(InvocationMetrics.CACHE_MISSES, 1);
+        metrics.end();
+
+        String line = output();
+        assertTrue(line.endsWith("\n"));
+        JSONAssert.assertEquals("""
+                {
+                  "_aws": {
+                    "CloudWatchMetrics": [{
+                      "Namespace": "Products",
+                      "Dimensions": [["FunctionName"]],
+                      "Metrics": [
+                        {"Name": "StoreTime", "Unit": "Milliseconds"},
+                        {"Name": "HandlerTime", "Unit": "Milliseconds"},
+                        {"Name": "CacheHits", "Unit": "Count"},
+                        {"Name": "CacheMisses", "Unit": "Count"}
+                      ]
+                    }]
+                  },
+                  "FunctionName": "GetProductFunction",
+                  "CacheHits": 0,
+                  "CacheMisses": 1
+                }
+                """, line, JSONCompareMode.LENIENT);
+        assertTrue(line.contains("\"Timestamp\":"));
+        assertTrue(line.contains("\"StoreTime\":"));
+        assertTrue(line.contains("\"HandlerTime\":"));
+    }
+
+    @Test
+    public void nestedInvocationsShareMetrics() {
+        InvocationMetrics outer = InvocationMetrics.begin("ProductRouterFunction", writer);
+        InvocationMetrics inner = InvocationMetrics.begin("ProductRouterFunction", writer);
+        assertSame(outer, inner);
+
+        inner.end();
+        assertEquals("", output());
+        outer.end();
+        assertEquals(1, output().split("\n").length);
+    }
+
+    @Test
+    public void timesWorkThatFails() {
+        InvocationMetrics metrics = InvocationMetrics.begin(null, writer);
+        assertThrows(IOException.class, () -> metrics.time(InvocationMetrics.DESERIALIZATION_TIME, () -> {
+            throw new IOException("Unexpected end of input");
+        }));
+        metrics.end();
+
+        assertTrue(output().contains("\"DeserializationTime\":"));
+        assertTrue(output().contains("\"Dimensions\":[[]]"));
+    }
+
+    @Test
+    public void ignoresRecordingOutsideInvocations() {
+        InvocationMetrics.current().count(InvocationMetrics.CACHE_HITS, 1);
+        InvocationMetrics.current().end();
+
+        assertEquals("", output());
+    }
+
+    private String output() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.model;
+
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductJsonCodecTest {
+
+    private final Product product = new Product("111", "Indigo \"Hats\"", new BigDecimal("13.34"));
+
+    @Test
+    public void writesProducts() throws Exception {
+        String json = ProductJsonCodec.writeProducts(new Products(List.of(product), "abc"));
+
+        JSONAssert.assertEquals("""
+                {"products": [{"id": "111", "name": "Indigo \\"Hats\\"", "price": 13.34}], "nextCursor": "abc"}
+                """, json, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    public void omitsMissingCursor() throws Exception {
+        String json = ProductJsonCodec.writeProducts(new Products(List.of()));
+
+        JSONAssert.assertEquals("{\"products\": []}", json, JSONCompareMode.STRICT);
+    }
+
+    @Test
+    public void roundTripsProduct() throws Exception {
+        Product read = ProductJsonCodec.readProduct(ProductJsonCodec.writeProduct(product));
+
+        assertEquals(product.getId(), read.getId());
+        assertEquals(product.getName(), read.getName());
+        assertEquals(product.getPrice(), read.getPrice());
+    }
+
+    @Test
+    public void roundTripsCbor() throws Exception {
+        Product versioned = new Product("111", "Indigo \"Hats\"", new BigDecimal("13.34"), 3L);
+
+        byte[] cbor = ProductJsonCodec.writeProductCbor(versioned, ProductField.ALL);
+        Product read = ProductJsonCodec.readProductCbor(cbor);
+
+        assertEquals(versioned.getId(), read.getId());
+        assertEquals(versioned.getName(), read.getName());
+        assertEquals(versioned.getPrice(), read.getPrice());
+        assertEquals(3L, read.getVersion());
+        assertTrue(cbor.length < ProductJsonCodec.writeProduct(versioned).length());
+        assertThrows(IOException.class, () -> ProductJsonCodec.readProductCbor(
+                ProductJsonCodec.writeProductCbor(versioned, ProductField.parse("name"))));
+    }
+
+    @Test
+    public void roundTripsVersion() throws Exception {
+        String json = ProductJsonCodec.writeProduct(new Product("111", "Hats", new BigDecimal("1.00"), 7L));
+
+        JSONAssert.assertEquals("{\"id\": \"111\", \"name\": \"Hats\", \"price\": 1.00, \"version\": 7}", json,
+                JSONCompareMode.STRICT);
+        assertEquals(7L, ProductJsonCodec.readProduct(json).getVersion());
+        assertNull(ProductJsonCodec.readProduct(ProductJsonCodec.writeProduct(product)).getVersion());
+    }
+
+    @Test
+    public void writesSelectedFields() throws Exception {
+        String json = ProductJsonCodec.writeProducts(new Products(List.of(product)), ProductField.parse("price"));
+
+        JSONAssert.assertEquals("{\"products\": [{\"id\": \"111\", \"price\": 13.34}]}", json,
+                JSONCompareMode.STRICT);
+        assertSame(ProductField.ALL, ProductField.parse(null));
+        assertSame(ProductField.ALL, ProductField.parse("version, price,name"));
+        assertThrows(IllegalArgumentException.class, () -> ProductField.parse("id,colour"));
+    }
+
+    @Test
+    public void scalesPriceLikeTheModel() throws Exception {
+        Product read = ProductJsonCodec.readProduct("{\"id\": \"1\", \"name\": \"Hats\", \"price\": \"9.999\"}");
+
+        assertEquals(new BigDecimal("10.00"), read.getPrice());
+    }
+
+    @Test
+    public void readsProductIds() throws Exception {
+        ProductIds ids = ProductJsonCodec.readProductIds("{\"ids\": [\"1\", \"2\"]}");
+
+        assertEquals(List.of("1", "2"), ids.getIds());
+    }
+
+    @Test
+    public void readsEmptyBatchAsMissingProducts() throws Exception {
+        assertNull(ProductJsonCodec.readProducts("{}").getProducts());
+    }
+
+    @Test
+    public void rejectsInvalidProducts() {
+        List<String> invalid = List.of(
+                "",
+                "[]",
+                "{\"id\": \"1\", \"name\": \"Hats\"}",
+                "{\"id\": \"\", \"name\": \"Hats\", \"price\": 1}",
+                "{\"id\": 1, \"name\": \"Hats\", \"price\": 1}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": \"free\"}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": 1, \"colour\": \"red\"}",
+                "{\"id\": \"1\", \"id\": \"2\", \"name\": \"Hats\", \"price\": 1}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": 1} {}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": 1, \"version\": -1}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": 1, \"version\": 1.5}",
+                "{\"id\": \"1\", \"name\": \"Hats\", \"price\": 1, \"version\": \"1\"}");
+
+        for (String json : invalid) {
+            assertThrows(IOException.class, () -> ProductJsonCodec.readProduct(json), json);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidProductIds() {
+        assertThrows(IOException.class, () -> ProductJsonCodec.readProductIds("{\"ids\": [1]}"));
+        assertThrows(IOException.class, () -> ProductJsonCodec.readProductIds("{\"ids\": [\"1\"], \"other\": []}"));
+    }
+}
@@ -0,0 +1,133 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.nativeimage;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keeps the reachability metadata under {@code META-INF/native-image} in check. Every type registered for reflection
+ * ends up in the image with the members it registers, so their number is held to a budget, and this project's own
+ * classes are registered member by member rather than wholesale.
+ * <p>
+ * Running the tests with the tracing agent, as described in the README, records the metadata of the Lambda handlers
+ * from {@link #testHandlersLoadLikeTheRuntime()}, which loads them the way the runtime interface client does.
+ */
+public class NativeImageMetadataTest {
+
+    // Raise deliberately: each registration adds its members, and everything they reach, to the image
+    private static final int REFLECTION_BUDGET = 45;
+
+    private static final String OWN_PACKAGE = "software.amazonaws.example.";
+    private static final String ENTRYPOINTS_PACKAGE = "software.amazonaws.example.product.entrypoints";
+    private static final Set<String> WHOLESALE = Set.of("allDeclaredConstructors", "allPublicConstructors",
+            "allDeclaredMethods", "allPublicMethods", "allDeclaredFields", "allPublicFields", "allDeclaredClasses",
+            "allPublicClasses");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    public void testReflectionWithinBudget() throws Exception {
+        List<JsonNode> registrations = reflectionRegistrations();
+
+        assertTrue(registrations.size() <= REFLECTION_BUDGET, registrations.size()
+                + " types are registered for reflection, over the budget of " + REFLECTION_BUDGET);
+    }
+
+    @Test
+    public void testOwnClassesAreNotRegisteredWholesale() throws Exception {
+        for (JsonNode registration : reflectionRegistrations()) {
+            String name = registration.path("name").asText();
+            if (name.startsWith(OWN_PACKAGE)) {
+                for (String flag : WHOLESALE) {
+                    assertFalse(registration.path(flag).asBoolean(), name + " is registered with " + flag);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHandlersLoadLikeTheRuntime() throws Exception {
+        Map<String, JsonNode> registrations = new HashMap<>();
+        for (JsonNode registration : reflectionRegistrations()) {
+            registrations.put(registration.path("name").asText(), registration);
+        }
+
+        List<String> handlers = handlerClassNames();
+        assertFalse(handlers.isEmpty());
+        for (String handler : handlers) {
+            Class<?> handlerClass = Class.forName(handler);
+            assertTrue(RequestHandler.class.isAssignableFrom(handlerClass), handler + " is not a RequestHandler");
+            handlerClass.getConstructor();
+            handlerClass.getGenericInterfaces();
+
+            JsonNode registration = registrations.get(handler);
+            assertNotNull(registration, handler + " is not registered for reflection");
+            assertTrue(registersDefaultConstructor(registration), handler + " does not register its constructor");
+        }
+    }
+
+    private static boolean registersDefaultConstructor(JsonNode registration) {
+        for (JsonNode method : registration.path("methods")) {
+            if ("<init>".equals(method.path("name").asText()) && method.path("parameterTypes").isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Names the classes in the entry points package that end in {@code Handler}, without loading the others, which the
+     * tracing agent would otherwise record.
+     */
+    private static List<String> handlerClassNames() throws IOException, URISyntaxException {
+        // Resolved against the main classes, as the test classes share the package
+        Path mainClasses = Paths.get(ProductsFeature.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> handlers = new ArrayList<>();
+        try (Stream<Path> classes = Files.list(mainClasses.resolve(ENTRYPOINTS_PACKAGE.replace('.', '/')))) {
+            classes.map(path -> path.getFileName().toString())
+                    .filter(file -> file.endsWith("Handler.class") && !file.contains("$"))
+                    .map(file -> ENTRYPOINTS_PACKAGE + "." + file.substring(0, file.length() - ".class".length()))
+                    .forEach(handlers::add);
+        }
+        Collections.sort(handlers);
+        return handlers;
+    }
+
+    /**
+     * Reads every {@code reflect-config.json} this project ships, rather than those of its dependencies' jars.
+     */
+    private static List<JsonNode> reflectionRegistrations() throws IOException, URISyntaxException {
+        URL url = ProductsFeature.class.getResource("/META-INF/native-image/reflect-config.json");
+        assertNotNull(url);
+        Path root = Paths.get(url.toURI()).getParent();
+        List<JsonNode> registrations = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.filter(path -> path.endsWith("reflect-config.json")).toList()) {
+                OBJECT_MAPPER.readTree(file.toFile()).forEach(registrations::add);
+            }
+        }
+        return registrations;
+    }
+}
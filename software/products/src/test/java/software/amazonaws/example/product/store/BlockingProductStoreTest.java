@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store;
+
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BlockingProductStoreTest {
+
+    private final AsyncProductStore mockAsyncProductStore = mock(AsyncProductStore.class);
+    private final BlockingProductStore productStore = new BlockingProductStore(mockAsyncProductStore);
+
+    @Test
+    public void testWaitsForResult() {
+        Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+        when(mockAsyncProductStore.getProduct("111")).thenReturn(CompletableFuture.completedFuture(Optional.of(product)));
+        when(mockAsyncProductStore.putProducts(List.of(product))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertEquals(Optional.of(product), productStore.getProduct("111"));
+        assertEquals(List.of(), productStore.putProducts(List.of(product)));
+    }
+
+    @Test
+    public void testInvalidCursorIsRethrown() {
+        when(mockAsyncProductStore.getAllProduct(20, "bad"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Invalid cursor")));
+
+        assertThrows(IllegalArgumentException.class, () -> productStore.getAllProduct(20, "bad"));
+    }
+
+    @Test
+    public void testBatchFailureIsRethrown() {
+        when(mockAsyncProductStore.deleteProducts(List.of("111")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+
+        assertThrows(IllegalStateException.class, () -> productStore.deleteProducts(List.of("111")));
+    }
+
+    @Test
+    public void testReadFailureIsNotAMissingProduct() {
+        when(mockAsyncProductStore.getProduct("111"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("timed out")));
+
+        assertThrows(IllegalStateException.class, () -> productStore.getProduct("111"));
+    }
+
+    @Test
+    public void testStoreUnavailableIsRethrown() {
+        when(mockAsyncProductStore.getProduct("111"))
+                .thenReturn(CompletableFuture.failedFuture(new StoreUnavailableException("throttled", 100)));
+
+        assertThrows(StoreUnavailableException.class, () -> productStore.getProduct("111"));
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.cache;
+
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.store.ProductStore;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingProductStoreTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(30);
+    private static final long NEGATIVE_TTL = TimeUnit.SECONDS.toNanos(5);
+
+    private final ProductStore mockProductStore = mock(ProductStore.class);
+    private final AtomicLong now = new AtomicLong();
+    private final CachingProductStore cache = new CachingProductStore(mockProductStore, 2, TTL, NEGATIVE_TTL, now::get);
+
+    private final Product product = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+
+    @Test
+    public void testRepeatedLookupIsServedFromCache() {
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        assertEquals(Optional.of(product), cache.getProduct("111"));
+        assertEquals(Optional.of(product), cache.getProduct("111"));
+
+        verify(mockProductStore, times(1)).getProduct("111");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        cache.getProduct("111");
+        now.addAndGet(TTL);
+        cache.getProduct("111");
+
+        verify(mockProductStore, times(2)).getProduct("111");
+    }
+
+    @Test
+    public void testMissingProductIsCachedForNegativeTtl() {
+        when(mockProductStore.getProduct("404")).thenReturn(Optional.empty());
+
+        assertTrue(cache.getProduct("404").isEmpty());
+        now.addAndGet(NEGATIVE_TTL - 1);
+        assertTrue(cache.getProduct("404").isEmpty());
+        now.addAndGet(1);
+        assertTrue(cache.getProduct("404").isEmpty());
+
+        verify(mockProductStore, times(2)).getProduct("404");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        when(mockProductStore.getProduct("1")).thenReturn(Optional.empty());
+        when(mockProductStore.getProduct("2")).thenReturn(Optional.empty());
+        when(mockProductStore.getProduct("3")).thenReturn(Optional.empty());
+
+        cache.getProduct("1");
+        cache.getProduct("2");
+        cache.getProduct("1");
+        cache.getProduct("3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.getProduct("1");
+        cache.getProduct("2");
+        verify(mockProductStore, times(1)).getProduct("1");
+        verify(mockProductStore, times(2)).getProduct("2");
+    }
+
+    @Test
+    public void testWriteInvalidatesEntry() {
+        when(mockProductStore.getProduct("111")).thenReturn(Optional.of(product));
+
+        cache.getProduct("111");
+        cache.putProduct(product);
+        cache.getProduct("111");
+        cache.deleteProduct("111");
+        cache.getProduct("111");
+
+        verify(mockProductStore, times(3)).getProduct("111");
+    }
+}
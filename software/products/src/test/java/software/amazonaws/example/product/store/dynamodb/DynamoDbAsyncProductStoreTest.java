@@ -0,0 +1,130 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazonaws.example.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DynamoDbAsyncProductStoreTest {
+
+    private final DynamoDbAsyncClient mockDynamoDbClient = mock(DynamoDbAsyncClient.class);
+    private final DynamoDbAsyncProductStore productStore = new DynamoDbAsyncProductStore(mockDynamoDbClient);
+
+    @Test
+    public void testWarmUpDescribesTable() {
+        when(mockDynamoDbClient.describeTable(any(DescribeTableRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DescribeTableResponse.builder().build()));
+
+        productStore.warmUp(1000);
+
+        verify(mockDynamoDbClient, times(1)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void testWarmUpFailureIsIgnored() {
+        when(mockDynamoDbClient.describeTable(any(DescribeTableRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("unreachable")));
+
+        productStore.warmUp(1000);
+    }
+
+    @Test
+    public void testWarmUpGivesUpAfterTimeout() {
+        when(mockDynamoDbClient.describeTable(any(DescribeTableRequest.class))).thenReturn(new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        productStore.warmUp(50);
+
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    public void testPrimeOnlyReads() {
+        when(mockDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+
+        productStore.prime(1000);
+
+        verify(mockDynamoDbClient, times(1)).getItem(any(GetItemRequest.class));
+        verify(mockDynamoDbClient, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    public void testBatchWritesIncrementVersions() throws Exception {
+        when(mockDynamoDbClient.updateItem(argThat((UpdateItemRequest request) -> request != null
+                && request.key().get(ProductMapper.PK).s().endsWith("111"))))
+                .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+        when(mockDynamoDbClient.updateItem(argThat((UpdateItemRequest request) -> request != null
+                && request.key().get(ProductMapper.PK).s().endsWith("222"))))
+                .thenReturn(CompletableFuture.failedFuture(SdkServiceException.builder().statusCode(429).build()));
+
+        List<String> unprocessedIds = productStore.putProducts(List.of(
+                new Product("111", "Indigo Hats", new BigDecimal("13.34"), 7L),
+                new Product("222", "Red Scarves", new BigDecimal("9.99")))).get();
+
+        assertEquals(List.of("222"), unprocessedIds);
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(mockDynamoDbClient, times(2)).updateItem(captor.capture());
+        for (UpdateItemRequest request : captor.getAllValues()) {
+            assertTrue(request.updateExpression().endsWith("ADD #version :one"));
+            assertNull(request.conditionExpression());
+        }
+    }
+
+    @Test
+    public void testBackfillUpdatesItemsMissingSearchAttributes() {
+        List<Map<String, AttributeValue>> items = List.of(
+                Map.of(ProductMapper.PK, AttributeValue.builder().s("111").build(),
+                        ProductMapper.NAME, AttributeValue.builder().s("Indigo Hats").build(),
+                        ProductMapper.PRICE, AttributeValue.builder().n("13.34").build()),
+                Map.of(ProductMapper.PK, AttributeValue.builder().s("222").build(),
+                        ProductMapper.NAME, AttributeValue.builder().s("Red Scarves").build(),
+                        ProductMapper.PRICE, AttributeValue.builder().n("9.99").build()));
+        when(mockDynamoDbClient.scan(any(ScanRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(ScanResponse.builder().items(items).count(items.size()).build()));
+        when(mockDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+
+        assertEquals(2, productStore.backfillSearchAttributes(1, 2));
+
+        ArgumentCaptor<ScanRequest> scan = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockDynamoDbClient).scan(scan.capture());
+        assertEquals("attribute_not_exists(#shard) OR attribute_not_exists(#nameKey)",
+                scan.getValue().filterExpression());
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(mockDynamoDbClient, times(2)).updateItem(captor.capture());
+        for (UpdateItemRequest request : captor.getAllValues()) {
+            assertEquals("SET #shard = :shard, #nameKey = :nameKey", request.updateExpression());
+            assertEquals("#name = :name", request.conditionExpression());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazonaws.example.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelScanTest {
+
+    private static final int PAGES_PER_SEGMENT = 3;
+    private static final int ITEMS_PER_PAGE = 2;
+
+    private final DynamoDbAsyncClient mockDynamoDbClient = mock(DynamoDbAsyncClient.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxObservedInFlight = new AtomicInteger();
+
+    @Test
+    public void testReadsEverySegmentToTheEnd() {
+        when(mockDynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> page(invocation.getArgument(0)));
+
+        Set<String> ids = new HashSet<>();
+        try (ParallelScan scan = new ParallelScan(mockDynamoDbClient, "Products", 4, 2)) {
+            while (scan.hasNext()) {
+                ids.add(scan.next().getId());
+            }
+        }
+
+        assertEquals(4 * PAGES_PER_SEGMENT * ITEMS_PER_PAGE, ids.size());
+        assertTrue(maxObservedInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testFailedSegmentIsRethrown() {
+        when(mockDynamoDbClient.scan(any(ScanRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+
+        ParallelScan scan = new ParallelScan(mockDynamoDbClient, "Products", 2, 2);
+
+        assertThrows(CompletionException.class, scan::hasNext);
+    }
+
+    @Test
+    public void testThrottledPagesAreRequestedAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        when(mockDynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> calls.incrementAndGet() % 3 == 1
+                ? CompletableFuture.failedFuture(SdkServiceException.builder().statusCode(429).build())
+                : page(invocation.getArgument(0)));
+
+        Set<String> ids = new HashSet<>();
+        try (ParallelScan scan = new ParallelScan(mockDynamoDbClient, "Products", 2, 2)) {
+            while (scan.hasNext()) {
+                ids.add(scan.next().getId());
+            }
+        }
+
+        assertEquals(2 * PAGES_PER_SEGMENT * ITEMS_PER_PAGE, ids.size());
+        assertTrue(calls.get() > 2 * PAGES_PER_SEGMENT);
+    }
+
+    private CompletableFuture<ScanResponse> page(ScanRequest request) {
+        int current = inFlight.incrementAndGet();
+        maxObservedInFlight.accumulateAndGet(current, Math::max);
+
+        int pageNumber = request.exclusiveStartKey() == null ? 0 : Integer.parseInt(request.exclusiveStartKey().get("PK").s().split("-")[2]) + 1;
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_PAGE; i++) {
+            Product product = new Product(request.segment() + "-" + i + "-" + pageNumber, "name", BigDecimal.ONE);
+            items.add(ProductMapper.productToDynamoDb(product));
+        }
+
+        ScanResponse.Builder response = ScanResponse.builder().items(items).count(items.size());
+        if (pageNumber < PAGES_PER_SEGMENT - 1) {
+            response.lastEvaluatedKey(Map.of("PK", items.get(items.size() - 1).get("PK")));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            inFlight.decrementAndGet();
+            return response.build();
+        }, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,139 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.dynamodb;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardedQueryTest {
+
+    private final DynamoDbAsyncClient mockDynamoDbClient = mock(DynamoDbAsyncClient.class);
+    private final List<Product> products = new ArrayList<>();
+
+    @Test
+    public void testPagesThroughEveryShardInPriceOrder() {
+        for (int i = 0; i < 50; i++) {
+            products.add(new Product("id-" + i, "Product " + i, BigDecimal.valueOf((i * 37) % 50)));
+        }
+        when(mockDynamoDbClient.query(any(QueryRequest.class))).thenAnswer(invocation -> query(invocation.getArgument(0)));
+
+        List<Product> found = searchAll(new ProductQuery(new BigDecimal("10"), new BigDecimal("39"), null), 7);
+
+        assertEquals(30, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getPrice().compareTo(found.get(i).getPrice()) <= 0);
+        }
+    }
+
+    @Test
+    public void testFiltersNamePrefixResultsByPrice() {
+        for (int i = 0; i < 40; i++) {
+            products.add(new Product("id-" + i, (i % 2 == 0 ? "Red " : "Blue ") + (char) ('a' + i % 26),
+                    BigDecimal.valueOf(i)));
+        }
+        when(mockDynamoDbClient.query(any(QueryRequest.class))).thenAnswer(invocation -> query(invocation.getArgument(0)));
+
+        List<Product> found = searchAll(new ProductQuery(null, new BigDecimal("19"), "red"), 3);
+
+        assertEquals(10, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getName().toLowerCase().compareTo(found.get(i).getName().toLowerCase()) <= 0);
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidCursor() {
+        ShardedQuery query = new ShardedQuery(mockDynamoDbClient, "Products", new ProductQuery(BigDecimal.ONE, null, null));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> query.execute(10, "a.b").join());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    private List<Product> searchAll(ProductQuery productQuery, int limit) {
+        List<Product> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            Products page = new ShardedQuery(mockDynamoDbClient, "Products", productQuery).execute(limit, cursor).join();
+            assertTrue(page.getProducts().size() <= limit);
+            found.addAll(page.getProducts());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertNull(cursor);
+        assertEquals(found.size(), found.stream().map(Product::getId).distinct().count());
+        return found;
+    }
+
+    /**
+     * Answers a query from {@link #products} the way a search index would, including {@code Limit} counting items
+     * before the filter is applied.
+     */
+    private CompletableFuture<QueryResponse> query(QueryRequest request) {
+        boolean byName = ProductMapper.NAME_INDEX.equals(request.indexName());
+        String sortAttribute = byName ? ProductMapper.NAME_KEY : ProductMapper.PRICE;
+        Map<String, AttributeValue> values = request.expressionAttributeValues();
+        BigDecimal min = values.containsKey(":min") ? new BigDecimal(values.get(":min").n()) : null;
+        BigDecimal max = values.containsKey(":max") ? new BigDecimal(values.get(":max").n()) : null;
+        ProductQuery filter = new ProductQuery(min, max, byName ? values.get(":prefix").s() : null);
+
+        Comparator<Map<String, AttributeValue>> order = byName
+                ? Comparator.comparing(item -> item.get(sortAttribute).s())
+                : Comparator.comparing(item -> new BigDecimal(item.get(sortAttribute).n()));
+        order = order.thenComparing(item -> item.get(ProductMapper.PK).s());
+
+        List<Map<String, AttributeValue>> index = new ArrayList<>();
+        for (Product product : products) {
+            Map<String, AttributeValue> item = ProductMapper.productToDynamoDb(product);
+            if (item.get(ProductMapper.SHARD).s().equals(values.get(":shard").s())
+                    && (!byName || item.get(ProductMapper.NAME_KEY).s().startsWith(values.get(":prefix").s()))
+                    && (byName || filter.matches(product))) {
+                index.add(item);
+            }
+        }
+        index.sort(order);
+
+        int start = 0;
+        if (request.exclusiveStartKey() != null) {
+            while (order.compare(index.get(start), request.exclusiveStartKey()) <= 0) {
+                start++;
+            }
+        }
+        int end = Math.min(start + request.limit(), index.size());
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (Map<String, AttributeValue> item : index.subList(start, end)) {
+            if (filter.matches(ProductMapper.productFromDynamoDB(item))) {
+                items.add(item);
+            }
+        }
+        QueryResponse.Builder response = QueryResponse.builder().items(items).count(items.size());
+        if (end < index.size()) {
+            Map<String, AttributeValue> last = index.get(end - 1);
+            response.lastEvaluatedKey(Map.of(ProductMapper.PK, last.get(ProductMapper.PK),
+                    ProductMapper.SHARD, last.get(ProductMapper.SHARD), sortAttribute, last.get(sortAttribute)));
+        }
+        return CompletableFuture.completedFuture(response.build());
+    }
+}
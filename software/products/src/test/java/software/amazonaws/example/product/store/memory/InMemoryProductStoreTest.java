@@ -0,0 +1,192 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.memory;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import org.junit.jupiter.api.Test;
+import software.amazonaws.example.product.entrypoints.ApiGatewayPutProductRequestHandler;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.ProductQuery;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.ProductVersionConflictException;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore.Behaviour;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore.InjectedFailureException;
+import software.amazonaws.example.product.store.memory.InMemoryProductStore.Operation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryProductStoreTest {
+
+    private static Product product(int i) {
+        return new Product(String.format("%04d", i), "Product " + i, BigDecimal.valueOf(i));
+    }
+
+    @Test
+    public void pagesInIdOrder() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProducts(List.of(product(3), product(1), product(4), product(2), product(5)));
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Products page = store.getAllProduct(2, cursor);
+            page.getProducts().forEach(p -> ids.add(p.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("0001", "0002", "0003", "0004", "0005"), ids);
+    }
+
+    @Test
+    public void omitsCursorOnLastPage() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProducts(List.of(product(1), product(2)));
+
+        assertNull(store.getAllProduct(2, null).getNextCursor());
+    }
+
+    @Test
+    public void rejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryProductStore().getAllProduct(2, "***"));
+    }
+
+    @Test
+    public void searchesByPriceThenByName() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProducts(List.of(new Product("1", "Red Shoes", new BigDecimal("40")),
+                new Product("2", "red hat", new BigDecimal("10")),
+                new Product("3", "Blue Shoes", new BigDecimal("20")),
+                new Product("4", "Red Scarf", new BigDecimal("30"))));
+
+        ProductQuery byPrice = new ProductQuery(new BigDecimal("15"), new BigDecimal("40"), null);
+        Products first = store.searchProducts(byPrice, 2, null);
+        assertEquals(List.of("3", "4"), first.getProducts().stream().map(Product::getId).toList());
+        Products second = store.searchProducts(byPrice, 2, first.getNextCursor());
+        assertEquals(List.of("1"), second.getProducts().stream().map(Product::getId).toList());
+        assertNull(second.getNextCursor());
+
+        Products byName = store.searchProducts(new ProductQuery(null, new BigDecimal("35"), "RED"), 10, null);
+        assertEquals(List.of("2", "4"), byName.getProducts().stream().map(Product::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> store.searchProducts(byPrice, 2, "***"));
+    }
+
+    @Test
+    public void versionsSingleProductWrites() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProduct(new Product("1", "Hats", BigDecimal.ONE, 0L));
+        assertEquals(1L, store.getProduct("1").orElseThrow().getVersion());
+
+        assertThrows(ProductVersionConflictException.class,
+                () -> store.putProduct(new Product("1", "Shoes", BigDecimal.ONE, 0L)));
+        assertThrows(ProductVersionConflictException.class,
+                () -> store.putProduct(new Product("1", "Shoes", BigDecimal.ONE, 2L)));
+        assertEquals("Hats", store.getProduct("1").orElseThrow().getName());
+
+        store.putProduct(new Product("1", "Shoes", BigDecimal.ONE, 1L));
+        store.putProduct(new Product("1", "Socks", BigDecimal.ONE));
+        assertEquals(3L, store.getProduct("1").orElseThrow().getVersion());
+
+        store.putProducts(List.of(new Product("1", "Scarves", BigDecimal.ONE, 3L)));
+        assertEquals(4L, store.getProduct("1").orElseThrow().getVersion());
+        assertThrows(ProductVersionConflictException.class,
+                () -> store.putProduct(new Product("1", "Gloves", BigDecimal.ONE, 3L)));
+
+        // A writer still holding version 1 must not pass once the batch write and later writes have moved past it
+        store.putProducts(List.of(new Product("2", "Belts", BigDecimal.ONE)));
+        store.putProduct(new Product("2", "Ties", BigDecimal.ONE));
+        assertEquals(2L, store.getProduct("2").orElseThrow().getVersion());
+        store.putProducts(List.of(new Product("2", "Caps", BigDecimal.ONE)));
+        store.putProduct(new Product("2", "Hoods", BigDecimal.ONE));
+        assertThrows(ProductVersionConflictException.class,
+                () -> store.putProduct(new Product("2", "Gloves", BigDecimal.ONE, 2L)));
+    }
+
+    @Test
+    public void batchGetSkipsMissingProducts() {
+        InMemoryProductStore store = new InMemoryProductStore();
+        store.putProduct(product(1));
+
+        Products products = store.getProducts(List.of("0001", "0002", "0001"));
+
+        assertEquals(1, products.getProducts().size());
+    }
+
+    @Test
+    public void injectsFailures() {
+        InMemoryProductStore store = new InMemoryProductStore(Map.of(
+                Operation.GET, new Behaviour(0, 0, TimeUnit.MILLISECONDS, 1),
+                Operation.BATCH_PUT, new Behaviour(0, 0, TimeUnit.MILLISECONDS, 1)));
+
+        assertThrows(InjectedFailureException.class, () -> store.getProduct("0001"));
+        assertEquals(List.of("0001", "0002"), store.putProducts(List.of(product(1), product(2))));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void injectsLatency() {
+        InMemoryProductStore store = new InMemoryProductStore(Map.of(
+                Operation.PUT, new Behaviour(20, 10, TimeUnit.MILLISECONDS, 0)));
+
+        long start = System.nanoTime();
+        store.putProduct(product(1));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void readsBehaviourFromEnvironment() {
+        InMemoryProductStore store = InMemoryProductStore.fromEnvironment(Map.of(
+                "PRODUCT_STORE_FAILURE_RATE", "1",
+                "PRODUCT_STORE_GET_FAILURE_RATE", "0"));
+
+        store.getProduct("0001");
+        assertThrows(InjectedFailureException.class, () -> store.deleteProduct("0001"));
+    }
+
+    @Test
+    public void seedsProductsFromEnvironment() {
+        InMemoryProductStore store = InMemoryProductStore.fromEnvironment(Map.of("PRODUCT_STORE_SEED_COUNT", "3"));
+
+        assertEquals(3, store.size());
+        assertTrue(store.getProduct("00000002").isPresent());
+    }
+
+    @Test
+    public void servesHandlersConcurrently() throws Exception {
+        InMemoryProductStore store = new InMemoryProductStore();
+        ApiGatewayPutProductRequestHandler handler = new ApiGatewayPutProductRequestHandler(store);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<APIGatewayV2HTTPResponse>> responses = IntStream.range(0, 1_000)
+                    .mapToObj(i -> executor.submit(() -> handler.handleRequest(APIGatewayV2HTTPEvent.builder()
+                            .withPathParameters(Map.of("id", String.format("%04d", i)))
+                            .withBody("{\"id\": \"" + String.format("%04d", i) + "\", \"name\": \"p\", \"price\": 1}")
+                            .build(), null)))
+                    .collect(Collectors.toList());
+            for (Future<APIGatewayV2HTTPResponse> response : responses) {
+                assertEquals(201, response.get().getStatusCode());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1_000, store.size());
+        assertEquals(1_000, store.getAllProduct(1_000, null).getProducts().size());
+    }
+}
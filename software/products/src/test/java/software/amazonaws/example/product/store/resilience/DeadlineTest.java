@@ -0,0 +1,44 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest {
+
+    @Test
+    public void testNestedRunKeepsTheDeadline() {
+        Deadline.begin(3000);
+        try {
+            long deadline = Deadline.nanos();
+            assertTrue(deadline < Long.MAX_VALUE);
+
+            Deadline.begin(0);
+            Deadline.end();
+
+            assertEquals(deadline, Deadline.nanos());
+        } finally {
+            Deadline.end();
+        }
+        assertEquals(Long.MAX_VALUE, Deadline.nanos());
+    }
+
+    @Test
+    public void testNoDeadlineOutsideLambda() {
+        Deadline.begin(0);
+        try {
+            Deadline.begin(3000);
+            try {
+                assertEquals(Long.MAX_VALUE, Deadline.nanos());
+            } finally {
+                Deadline.end();
+            }
+        } finally {
+            Deadline.end();
+        }
+    }
+}
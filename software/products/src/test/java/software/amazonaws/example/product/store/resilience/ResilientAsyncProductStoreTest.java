@@ -0,0 +1,169 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package software.amazonaws.example.product.store.resilience;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazonaws.example.product.model.Product;
+import software.amazonaws.example.product.model.Products;
+import software.amazonaws.example.product.store.AsyncProductStore;
+import software.amazonaws.example.product.store.StoreUnavailableException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResilientAsyncProductStoreTest {
+
+    private static final Product PRODUCT = new Product("111", "Indigo Hats", new BigDecimal("13.34"));
+
+    private final AsyncProductStore mockAsyncProductStore = mock(AsyncProductStore.class);
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    public void testRetriesThrottledCalls() throws Exception {
+        ResilientAsyncProductStore productStore = store(3, false);
+        when(mockAsyncProductStore.putProduct(PRODUCT))
+                .thenReturn(CompletableFuture.failedFuture(throttled()), CompletableFuture.completedFuture(null));
+
+        productStore.putProduct(PRODUCT).get(5, TimeUnit.SECONDS);
+
+        verify(mockAsyncProductStore, times(2)).putProduct(PRODUCT);
+    }
+
+    @Test
+    public void testRetriesServerErrorsOnIdempotentCalls() throws Exception {
+        ResilientAsyncProductStore productStore = store(3, false);
+        when(mockAsyncProductStore.deleteProducts(List.of("111")))
+                .thenReturn(CompletableFuture.failedFuture(serverError()), CompletableFuture.completedFuture(List.of()));
+
+        assertEquals(List.of(), productStore.deleteProducts(List.of("111")).get(5, TimeUnit.SECONDS));
+        verify(mockAsyncProductStore, times(2)).deleteProducts(List.of("111"));
+    }
+
+    @Test
+    public void testDoesNotRetryServerErrorsOnPut() {
+        ResilientAsyncProductStore productStore = store(3, false);
+        when(mockAsyncProductStore.putProduct(PRODUCT)).thenReturn(CompletableFuture.failedFuture(serverError()));
+
+        assertUnavailable(productStore.putProduct(PRODUCT));
+        verify(mockAsyncProductStore, times(1)).putProduct(PRODUCT);
+    }
+
+    @Test
+    public void testRetriesWhenTheStoreIsUnavailable() throws Exception {
+        ResilientAsyncProductStore productStore = store(3, false);
+        Products products = new Products(List.of(PRODUCT));
+        when(mockAsyncProductStore.getProducts(List.of("111")))
+                .thenReturn(CompletableFuture.failedFuture(new StoreUnavailableException("Keys left unprocessed", 1000)),
+                        CompletableFuture.completedFuture(products));
+
+        assertEquals(products, productStore.getProducts(List.of("111")).get(5, TimeUnit.SECONDS));
+        verify(mockAsyncProductStore, times(2)).getProducts(List.of("111"));
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        ResilientAsyncProductStore productStore = store(2, false);
+        when(mockAsyncProductStore.getProduct("111")).thenReturn(CompletableFuture.failedFuture(throttled()));
+
+        assertUnavailable(productStore.getProduct("111"));
+        verify(mockAsyncProductStore, times(2)).getProduct("111");
+    }
+
+    @Test
+    public void testPassesOnPermanentFailures() {
+        ResilientAsyncProductStore productStore = store(3, false);
+        when(mockAsyncProductStore.getAllProduct(20, "bad"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Invalid cursor")));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> productStore.getAllProduct(20, "bad").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        verify(mockAsyncProductStore, times(1)).getAllProduct(20, "bad");
+        assertEquals(CircuitBreaker.State.CLOSED, productStore.circuitBreakerState());
+    }
+
+    @Test
+    public void testCircuitBreakerFailsFastAndRecovers() throws Exception {
+        ResilientAsyncProductStore productStore = store(1, false);
+        Products products = new Products(List.of(PRODUCT));
+        when(mockAsyncProductStore.getAllProduct(20, null))
+                .thenReturn(CompletableFuture.failedFuture(serverError()), CompletableFuture.failedFuture(serverError()),
+                        CompletableFuture.completedFuture(products));
+
+        assertUnavailable(productStore.getAllProduct(20, null));
+        assertUnavailable(productStore.getAllProduct(20, null));
+        assertEquals(CircuitBreaker.State.OPEN, productStore.circuitBreakerState());
+
+        StoreUnavailableException rejected = assertUnavailable(productStore.getAllProduct(20, null));
+        assertEquals(5000, rejected.getRetryAfterMillis());
+        verify(mockAsyncProductStore, times(2)).getAllProduct(20, null);
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(products, productStore.getAllProduct(20, null).get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, productStore.circuitBreakerState());
+    }
+
+    @Test
+    public void testHedgesSlowReads() throws Exception {
+        ResilientAsyncProductStore productStore = store(1, true);
+        when(mockAsyncProductStore.getProduct("111")).thenReturn(CompletableFuture.completedFuture(Optional.of(PRODUCT)));
+        for (int i = 0; i < 32; i++) {
+            productStore.getProduct("111").get(5, TimeUnit.SECONDS);
+        }
+
+        when(mockAsyncProductStore.getProduct("111"))
+                .thenReturn(new CompletableFuture<>(), CompletableFuture.completedFuture(Optional.of(PRODUCT)));
+
+        assertEquals(Optional.of(PRODUCT), productStore.getProduct("111").get(5, TimeUnit.SECONDS));
+        verify(mockAsyncProductStore, times(34)).getProduct("111");
+    }
+
+    @Test
+    public void testTimesOutAtDeadline() {
+        ResilientAsyncProductStore productStore = store(3, false);
+        when(mockAsyncProductStore.getProducts(List.of("111"))).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<Products> result;
+        Deadline.begin(300);
+        try {
+            result = productStore.getProducts(List.of("111"));
+        } finally {
+            Deadline.end();
+        }
+
+        assertUnavailable(result);
+    }
+
+    private ResilientAsyncProductStore store(int maxAttempts, boolean hedging) {
+        return new ResilientAsyncProductStore(mockAsyncProductStore, maxAttempts, hedging,
+                new CircuitBreaker(4, 2, 0.5, 5, TimeUnit.SECONDS, ticker::get));
+    }
+
+    private static StoreUnavailableException assertUnavailable(CompletableFuture<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(StoreUnavailableException.class, e.getCause());
+    }
+
+    private static SdkServiceException throttled() {
+        return SdkServiceException.builder().statusCode(429).build();
+    }
+
+    private static SdkServiceException serverError() {
+        return SdkServiceException.builder().statusCode(500).build();
+    }
+}